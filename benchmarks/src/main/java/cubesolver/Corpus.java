@@ -0,0 +1,49 @@
+package cubesolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed inputs shared by the benchmarks. Scrambles come from a seeded
+ * generator so every build is measured on exactly the same cubes.
+ */
+final class Corpus {
+    static final long SEED = 20240611L;
+    static final int SCRAMBLE_LENGTH = 25;
+
+    private static final String[] FACE_MOVES = {
+            "U", "U2", "Ui", "D", "D2", "Di", "R", "R2", "Ri",
+            "L", "L2", "Li", "F", "F2", "Fi", "B", "B2", "Bi" };
+
+    private Corpus() {
+    }
+
+    /** count random-move scrambles, never turning the same face twice in a row. */
+    static List<String> scrambles(int count) {
+        Random random = new Random(SEED);
+        List<String> scrambles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            int lastFace = -1;
+            for (int j = 0; j < SCRAMBLE_LENGTH; j++) {
+                int move;
+                do {
+                    move = random.nextInt(FACE_MOVES.length);
+                } while (move / 3 == lastFace);
+                lastFace = move / 3;
+                if (j > 0)
+                    sb.append(' ');
+                sb.append(FACE_MOVES[move]);
+            }
+            scrambles.add(sb.toString());
+        }
+        return scrambles;
+    }
+
+    static Cube scrambled(String scramble) {
+        Cube cube = new Cube();
+        MoveSequence.parse(scramble).applyTo(cube);
+        return cube;
+    }
+}
@@ -0,0 +1,59 @@
+package cubesolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cube primitives: a single move of each kind, and copying a cube.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CubeBenchmark {
+
+    private Cube cube;
+
+    @Setup
+    public void setup() {
+        cube = Corpus.scrambled(Corpus.scrambles(1).get(0));
+    }
+
+    @State(Scope.Thread)
+    public static class MoveType {
+        // Quarter, half and inverse face turns, and the three whole-cube rotations
+        @Param({ "U", "R", "F", "R2", "Ri", "x", "y", "z" })
+        public String move;
+
+        int code;
+
+        @Setup
+        public void setup() {
+            code = Cube.parseMove(move);
+        }
+    }
+
+    @Benchmark
+    public Cube move(MoveType type) {
+        cube.move(type.code);
+        return cube;
+    }
+
+    @Benchmark
+    public Cube copy() {
+        return new Cube(cube);
+    }
+}
@@ -0,0 +1,52 @@
+package cubesolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation throughput in solves per second, on one thread and on all cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+
+    static final int RUNS = 128;
+    // Fixed master seed: every iteration solves the same 128 scrambles
+    static final long SEED = 2024;
+
+    // 0 means one worker per available processor
+    @Param({ "1", "0" })
+    public int threads;
+
+    private Solver solver;
+
+    @Setup
+    public void setup() {
+        TwoPhaseSearch.loadTables();
+        solver = new Solver(new Cube());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RUNS)
+    public Solver.SimulationResult simulation() {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return solver.simulation(RUNS, SEED, workers, null);
+    }
+}
@@ -0,0 +1,114 @@
+package cubesolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solver hot paths over the fixed scramble corpus. Each invocation works on
+ * the next cube of the corpus, so the score is an average over all of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    static final int CORPUS_SIZE = 32; // a power of two
+
+    private Cube[] corpus;
+    private List<String>[] moveLists;
+    private MoveSequence[] sequences;
+    private Cube cube;
+    private Solver solver;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        TwoPhaseSearch.loadTables();
+        List<String> scrambles = Corpus.scrambles(CORPUS_SIZE);
+        corpus = new Cube[CORPUS_SIZE];
+        moveLists = new List[CORPUS_SIZE];
+        sequences = new MoveSequence[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            corpus[i] = Corpus.scrambled(scrambles.get(i));
+            // Rotations and cancelling turns give simplifyMoves real work
+            moveLists[i] = new ArrayList<>();
+            sequences[i] = MoveSequence.parse("y " + scrambles.get(i) + " Ri R y2 U U yi F2 F2 x R L Ri");
+            sequences[i].addNamesTo(moveLists[i]);
+        }
+        cube = new Cube();
+        solver = new Solver(cube);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (CORPUS_SIZE - 1);
+        return next;
+    }
+
+    @Benchmark
+    public String faceletString() {
+        return solver.getFaceletStringFromCube(corpus[nextIndex()]);
+    }
+
+    // The conversion solves use: validated cubies, no facelet string
+    @Benchmark
+    public byte[] cubies() {
+        byte[] cubies = new byte[TwoPhaseSearch.CUBIES];
+        CubeValidator.toCubies(corpus[nextIndex()], cubies);
+        return cubies;
+    }
+
+    // Includes copying the input list, which simplifyMoves rewrites in place
+    @Benchmark
+    public List<String> simplifyMoves() {
+        List<String> moves = new ArrayList<>(moveLists[nextIndex()]);
+        solver.simplifyMoves(moves);
+        return moves;
+    }
+
+    // The same work on move codes, as Solver does for its own solution
+    @Benchmark
+    public MoveSequence simplifyCodes() {
+        return sequences[nextIndex()].simplified();
+    }
+
+    // Full search: the shared solution cache is emptied first so every call misses
+    @Benchmark
+    public String kociembaSolve() {
+        cube.copyFrom(corpus[nextIndex()]);
+        SolutionCache.SHARED.clear();
+        return solver.kociembaSolve();
+    }
+
+    @State(Scope.Thread)
+    public static class WarmCache {
+        @Setup
+        public void setup(SolverBenchmark benchmark) {
+            for (Cube scrambled : benchmark.corpus)
+                new Solver(new Cube(scrambled)).kociembaSolve();
+        }
+    }
+
+    // Symmetry reduction and lookup only: every corpus cube is already cached
+    @Benchmark
+    public String kociembaSolveCached(WarmCache cache) {
+        cube.copyFrom(corpus[nextIndex()]);
+        return solver.kociembaSolve();
+    }
+}
@@ -0,0 +1,253 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch solver. Reads one cube per line, either a scramble in move
+ * notation or a 54-character Kociemba facelet string, solves the lines on a
+ * worker pool and writes one result per line, in input order, as JSON lines
+ * or CSV. Nothing here touches AWT, so it runs with java.awt.headless=true.
+ *
+ * <pre>
+ * java -cp cubesolver-app.jar cubesolver.BatchSolver [options] [input-file]
+ *   --format json|csv   output format (default json)
+ *   --threads N         worker threads (default: available processors)
+ *   --budget MILLIS     anytime search: best solution found within the budget
+ *   --optimal           guaranteed-shortest solutions (one search thread per line)
+ *   --output FILE       write to FILE instead of stdout
+ * </pre>
+ *
+ * Blank lines and lines starting with '#' are skipped but still counted, so
+ * the line numbers in the output match the input file.
+ */
+public final class BatchSolver {
+
+    // Lines in flight per worker; bounds memory whatever the input size
+    private static final int WINDOW_PER_THREAD = 4;
+
+    private final boolean csv;
+    private final long budgetMillis;
+    private final boolean optimal;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    BatchSolver(boolean csv, long budgetMillis, boolean optimal) {
+        this.csv = csv;
+        this.budgetMillis = budgetMillis;
+        this.optimal = optimal;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        String format = "json", input = null, output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long budget = 0;
+        boolean optimal = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format":
+                        format = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--budget":
+                        budget = Long.parseLong(args[++i]);
+                        break;
+                    case "--optimal":
+                        optimal = true;
+                        break;
+                    case "--output":
+                        output = args[++i];
+                        break;
+                    default:
+                        if (args[i].startsWith("--") || input != null)
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        input = args[i];
+                }
+            }
+            if (!format.equals("json") && !format.equals("csv"))
+                throw new IllegalArgumentException("Unknown format: " + format);
+            if (threads <= 0 || budget < 0)
+                throw new IllegalArgumentException("--threads must be positive and --budget non-negative");
+            if (optimal && budget > 0)
+                throw new IllegalArgumentException("--optimal and --budget cannot be combined");
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            System.err.println("Usage: BatchSolver [--format json|csv] [--threads N] [--budget MILLIS | --optimal]"
+                    + " [--output FILE] [input-file]");
+            System.exit(2);
+            return;
+        }
+
+        TwoPhaseSearch.loadTables();
+        BatchSolver batch = new BatchSolver(format.equals("csv"), budget, optimal);
+        try (BufferedReader in = input == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+                Writer out = output == null
+                        ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                        : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            batch.run(in, out, threads);
+        }
+    }
+
+    /**
+     * Solves every line of in and writes the results to out in input order.
+     * At most threads * WINDOW_PER_THREAD lines are held in memory at once.
+     */
+    void run(BufferedReader in, Writer out, int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "batch-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int window = threads * WINDOW_PER_THREAD;
+        try {
+            if (csv)
+                out.write("line,input,solution,length,millis,error\n");
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#"))
+                    continue;
+                int n = lineNumber;
+                pending.add(pool.submit(() -> solveLine(n, trimmed)));
+                if (pending.size() >= window)
+                    out.write(await(pending.poll()));
+            }
+            while (!pending.isEmpty())
+                out.write(await(pending.poll()));
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String await(Future<String> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Solve failed", e.getCause());
+        }
+    }
+
+    // Runs on a worker thread; every failure becomes an error record
+    private String solveLine(int lineNumber, String input) {
+        Worker w = workers.get();
+        long start = System.nanoTime();
+        String solution;
+        try {
+            if (isFaceletString(input)) {
+                w.cube.copyFrom(Cube.fromFaceletString(input));
+            } else {
+                w.cube.makeCube();
+                MoveSequence.parse(input).applyTo(w.cube);
+            }
+            CubeValidator.Problem problem = CubeValidator.check(w.cube);
+            if (problem != null)
+                solution = problem.error() + ": " + problem.message;
+            else if (optimal)
+                solution = w.solver.optimalSolve(1, null).toString();
+            else
+                solution = budgetMillis > 0 ? w.solver.kociembaSolve(budgetMillis, null) : w.solver.kociembaSolve();
+        } catch (RuntimeException e) {
+            solution = "Error " + e.getMessage();
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        String error = solution.startsWith("Error") ? solution : null;
+        String moves = error == null ? solution.trim() : "";
+        int length = error == null ? MoveSequence.parse(moves).length() : 0;
+        return csv ? csvRecord(lineNumber, input, moves, length, millis, error)
+                : jsonRecord(lineNumber, input, moves, length, millis, error);
+    }
+
+    /**
+     * Whether a line is meant as a facelet string rather than a scramble.
+     * Spaces between moves are optional, so 54 face letters alone could be
+     * either; a facelet string also has its centers in Kociemba's U, R, F,
+     * D, L, B order. Any other sticker mistake is left for
+     * {@link CubeValidator} to report, so a scramble that happens to match is
+     * rejected rather than solved as the wrong cube.
+     */
+    static boolean isFaceletString(String s) {
+        if (s.length() != 54)
+            return false;
+        for (int i = 0; i < 54; i++) {
+            int color = "URFDLB".indexOf(s.charAt(i));
+            if (color < 0 || (i % 9 == 4 && color != i / 9))
+                return false;
+        }
+        return true;
+    }
+
+    private static String jsonRecord(int line, String input, String moves, int length, double millis, String error) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"line\":").append(line).append(",\"input\":");
+        appendJsonString(sb, input);
+        if (error == null) {
+            sb.append(",\"solution\":");
+            appendJsonString(sb, moves);
+            sb.append(",\"length\":").append(length);
+        } else {
+            sb.append(",\"error\":");
+            appendJsonString(sb, error);
+        }
+        sb.append(",\"millis\":").append(String.format(Locale.ROOT, "%.3f", millis)).append("}\n");
+        return sb.toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < 0x20)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static String csvRecord(int line, String input, String moves, int length, double millis, String error) {
+        return line + "," + csvField(input) + "," + csvField(moves) + "," + (error == null ? length : "") + ","
+                + String.format(Locale.ROOT, "%.3f", millis) + "," + (error == null ? "" : csvField(error)) + "\n";
+    }
+
+    private static String csvField(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0)
+            return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    // Per-thread cube and solver; TwoPhaseSearch instances are not shareable
+    private static final class Worker {
+        final Cube cube = new Cube();
+        final Solver solver = new Solver(cube);
+    }
+}
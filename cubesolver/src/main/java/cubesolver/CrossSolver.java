@@ -0,0 +1,160 @@
+package cubesolver;
+
+import java.util.Arrays;
+
+/**
+ * Optimal cross solver for the U face.
+ *
+ * The cross state is where the U-colored sticker of each of the four cross
+ * edges sits among the 24 edge stickers, packed as a base-24 number. A
+ * breadth-first search from the solved cross fills an exact distance table
+ * over those 24^4 indices (255,024 of them reachable, none deeper than 8),
+ * and an IDA* search bounded by that table finds an optimal solution.
+ * Edges are recognised by their colors relative to the centers, so any
+ * orientation or color scheme works.
+ */
+final class CrossSolver {
+    // Side faces in the order of the cross edges
+    private static final int[] SIDES = { Cube.FRONT, Cube.RIGHT, Cube.BACK, Cube.LEFT };
+    private static final int STATES = 24 * 24 * 24 * 24;
+    private static final int MAX_DEPTH = 8;
+
+    private static final int[] EDGE_FACELETS = new int[24]; // edge sticker -> facelet
+    private static final int[] EDGE_INDEX = new int[54];    // facelet -> edge sticker, or -1
+    private static final int[] PARTNER = new int[24];       // other sticker of the same edge
+    private static final byte[][] MOVES = new byte[Cube.FACE_MOVES][24]; // where a move sends each sticker
+    private static final int[] OPPOSITE = new int[6];
+    private static final byte[] DISTANCE = new byte[STATES];
+    private static final int SOLVED;
+
+    static {
+        Arrays.fill(EDGE_INDEX, -1);
+        int n = 0;
+        for (int f = 0; f < 54; f++) {
+            if (f % 9 % 2 == 1) { // positions 1, 3, 5 and 7 of a face are edges
+                EDGE_INDEX[f] = n;
+                EDGE_FACELETS[n++] = f;
+            }
+        }
+        // Stickers of one edge share their cubie
+        for (int e = 0; e < 24; e++) {
+            for (int o = 0; o < 24; o++) {
+                if (o != e && Arrays.equals(Cube.cubie(EDGE_FACELETS[e]), Cube.cubie(EDGE_FACELETS[o]))) {
+                    PARTNER[e] = o;
+                }
+            }
+        }
+        for (int code = 0; code < Cube.FACE_MOVES; code++) {
+            byte[] perm = Cube.permutation(code);
+            for (int f : EDGE_FACELETS) {
+                MOVES[code][EDGE_INDEX[perm[f]]] = (byte) EDGE_INDEX[f];
+            }
+        }
+        for (int face = 0; face < 6; face++) {
+            OPPOSITE[face] = Symmetry.opposite(face);
+        }
+
+        int solved = 0;
+        for (int side : SIDES) {
+            solved = solved * 24 + goalSticker(side);
+        }
+        SOLVED = solved;
+
+        Arrays.fill(DISTANCE, (byte) -1);
+        int[] queue = new int[255024];
+        int head = 0, tail = 0;
+        DISTANCE[SOLVED] = 0;
+        queue[tail++] = SOLVED;
+        while (head < tail) {
+            int state = queue[head++];
+            byte next = (byte) (DISTANCE[state] + 1);
+            for (int code = 0; code < Cube.FACE_MOVES; code++) {
+                int moved = apply(state, code);
+                if (DISTANCE[moved] < 0) {
+                    DISTANCE[moved] = next;
+                    queue[tail++] = moved;
+                }
+            }
+        }
+    }
+
+    private CrossSolver() {
+    }
+
+    // The U sticker of the edge between U and side
+    private static int goalSticker(int side) {
+        for (int i = 1; i < 9; i += 2) {
+            int e = EDGE_INDEX[Cube.UP * 9 + i];
+            if (EDGE_FACELETS[PARTNER[e]] / 9 == side)
+                return e;
+        }
+        throw new IllegalStateException();
+    }
+
+    private static int apply(int state, int code) {
+        byte[] move = MOVES[code];
+        return ((move[state / 13824] * 24 + move[state / 576 % 24]) * 24 + move[state / 24 % 24]) * 24
+                + move[state % 24];
+    }
+
+    /** Cross state of a cube, or -1 if its cross edges cannot be identified. */
+    static int index(Cube cube) {
+        int cross = cube.getFacelet(Cube.UP * 9 + 4);
+        int[] where = { -1, -1, -1, -1 };
+        for (int e = 0; e < 24; e++) {
+            if (cube.getFacelet(EDGE_FACELETS[e]) != cross)
+                continue;
+            int partner = cube.getFacelet(EDGE_FACELETS[PARTNER[e]]);
+            for (int k = 0; k < 4; k++) {
+                if (cube.getFacelet(SIDES[k] * 9 + 4) == partner)
+                    where[k] = e;
+            }
+        }
+        int state = 0;
+        for (int e : where) {
+            if (e < 0)
+                return -1;
+            state = state * 24 + e;
+        }
+        return state;
+    }
+
+    /** True if all four cross edges are home and correctly flipped. */
+    static boolean isSolved(Cube cube) {
+        return index(cube) == SOLVED;
+    }
+
+    /**
+     * Optimal sequence of face turns that solves the cross, empty if it is
+     * already solved or the cube's cross edges cannot be identified.
+     */
+    static MoveSequence solve(Cube cube) {
+        int start = index(cube);
+        if (start < 0 || DISTANCE[start] <= 0)
+            return MoveSequence.EMPTY;
+        byte[] path = new byte[MAX_DEPTH];
+        for (int depth = DISTANCE[start]; depth <= MAX_DEPTH; depth++) {
+            if (search(start, depth, -1, path, 0))
+                return MoveSequence.of(Arrays.copyOf(path, depth));
+        }
+        throw new IllegalStateException("Cross deeper than " + MAX_DEPTH);
+    }
+
+    private static boolean search(int state, int depth, int lastFace, byte[] path, int n) {
+        if (depth == 0)
+            return state == SOLVED;
+        for (int code = 0; code < Cube.FACE_MOVES; code++) {
+            int face = code / 3;
+            // Never turn a face twice in a row; turn commuting opposite faces in one order only
+            if (face == lastFace || (lastFace >= 0 && face == OPPOSITE[lastFace] && face < lastFace))
+                continue;
+            int next = apply(state, code);
+            if (DISTANCE[next] >= depth)
+                continue;
+            path[n] = (byte) code;
+            if (search(next, depth - 1, face, path, n + 1))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,347 @@
+package cubesolver;
+
+import java.util.Arrays;
+
+/**
+ * Represents the state and core mechanics of a 3x3 Rubik's Cube.
+ *
+ * The state is packed into 54 bytes, one color index per facelet, laid out
+ * face by face (U, F, R, L, D, B) and row-major within each face. Each face
+ * follows the facelet layout of Kociemba's two-phase solver, so the rows and
+ * columns seen here are the same ones written out by
+ * {@link Solver#getFaceletStringFromCube(Cube)}.
+ *
+ * Every face turn and whole-cube rotation is a precomputed permutation of the
+ * 54 facelets, applied in a single pass into a scratch buffer.
+ */
+class Cube {
+    // 0:Up(W), 1:Front(G), 2:Right(R), 3:Left(O), 4:Down(Y), 5:Back(B)
+    static final int UP = 0, FRONT = 1, RIGHT = 2, LEFT = 3, DOWN = 4, BACK = 5;
+    static final char[] COLORS = { 'W', 'G', 'R', 'O', 'Y', 'B' };
+    static final char[] FACE_NAMES = { 'U', 'F', 'R', 'L', 'D', 'B' };
+    private static final String FACE_LETTERS = new String(FACE_NAMES);
+
+    // Move codes are 3 * axis + (quarter turns - 1): the 18 face turns U..B
+    // in face order, the 9 whole-cube rotations x, y and z, then the slice
+    // turns M, E and S and the wide turns u..b (also written Uw..Bw). Face
+    // turns and rotations, the first MOVE_COUNT codes, are the primitives
+    // that move cancelling and symmetry work with; a slice or wide turn has
+    // its own permutation but stands for the primitives(code) it is made of.
+    static final int FACE_MOVES = 18;
+    static final int MOVE_COUNT = 27;
+    static final int X = 18, Y = 21, Z = 24;
+    static final int M = 27, E = 30, S = 33, WIDE_MOVES = 36;
+    static final int ALL_MOVES = 54;
+
+    private static final String[] MOVE_NAMES = new String[ALL_MOVES];
+    private static final byte[][] MOVE_PERMS = new byte[ALL_MOVES][];
+    private static final byte[][] PRIMITIVES = new byte[ALL_MOVES][];
+    // Axis (code / 3) of each move letter, -1 for none
+    private static final byte[] AXIS_OF = new byte[128];
+    // Sticker centers on a cube of side 6 centered at the origin, with x
+    // towards R, y towards U and z towards F.
+    private static final int[][] POSITIONS = new int[54][];
+    static final int[][] FACE_NORMALS = { { 0, 1, 0 }, { 0, 0, 1 }, { 1, 0, 0 }, { -1, 0, 0 }, { 0, -1, 0 },
+            { 0, 0, -1 } };
+
+    static {
+        String axes = "UFRLDBxyzMESufrldb";
+        String[] suffixes = { "", "2", "i" };
+        for (int code = 0; code < ALL_MOVES; code++) {
+            MOVE_NAMES[code] = axes.charAt(code / 3) + suffixes[code % 3];
+        }
+        Arrays.fill(AXIS_OF, (byte) -1);
+        for (int axis = 0; axis < axes.length(); axis++) {
+            AXIS_OF[axes.charAt(axis)] = (byte) axis;
+        }
+        AXIS_OF['X'] = 6;
+        AXIS_OF['Y'] = 7;
+        AXIS_OF['Z'] = 8;
+
+        int[][] pos = POSITIONS;
+        int[][] normals = FACE_NORMALS;
+        for (int f = 0; f < 6; f++) {
+            for (int r = 0; r < 3; r++) {
+                for (int c = 0; c < 3; c++) {
+                    int a = 2 * c - 2, b = 2 - 2 * r;
+                    int[] p;
+                    switch (f) {
+                        case UP: p = new int[] { a, 3, -b }; break;
+                        case FRONT: p = new int[] { a, b, 3 }; break;
+                        case RIGHT: p = new int[] { 3, b, -a }; break;
+                        case LEFT: p = new int[] { -3, b, a }; break;
+                        case DOWN: p = new int[] { a, -3, b }; break;
+                        default: p = new int[] { -a, b, -3 }; break;
+                    }
+                    pos[f * 9 + r * 3 + c] = p;
+                }
+            }
+        }
+
+        // x, y and z turn the whole cube like R, U and F respectively.
+        int[][] quarterTurns = new int[9][];
+        for (int f = 0; f < 6; f++) {
+            quarterTurns[f] = quarterTurn(pos, normals[f], 2);
+        }
+        quarterTurns[6] = quarterTurn(pos, normals[RIGHT], -3);
+        quarterTurns[7] = quarterTurn(pos, normals[UP], -3);
+        quarterTurns[8] = quarterTurn(pos, normals[FRONT], -3);
+
+        for (int axis = 0; axis < 9; axis++) {
+            byte[] single = new byte[54];
+            for (int i = 0; i < 54; i++) {
+                single[i] = (byte) quarterTurns[axis][i];
+            }
+            MOVE_PERMS[3 * axis] = single;
+            MOVE_PERMS[3 * axis + 1] = compose(single, single);
+            MOVE_PERMS[3 * axis + 2] = compose(MOVE_PERMS[3 * axis + 1], single);
+        }
+
+        // Slices turn like L, D and F; a wide turn is its face and the slice
+        // next to it. Each is its outer turns plus a rotation: M = R L' x',
+        // E = U D' y', S = F' B z, r = L x, u = D y, f = B z and so on.
+        // Entries are { face or rotation, turns the same way as the move? }
+        int[][][] parts = {
+                { { RIGHT, 1 }, { LEFT, 0 }, { 6, 0 } },
+                { { UP, 1 }, { DOWN, 0 }, { 7, 0 } },
+                { { FRONT, 0 }, { BACK, 1 }, { 8, 1 } },
+                { { DOWN, 1 }, { 7, 1 } },
+                { { BACK, 1 }, { 8, 1 } },
+                { { LEFT, 1 }, { 6, 1 } },
+                { { RIGHT, 1 }, { 6, 0 } },
+                { { UP, 1 }, { 7, 0 } },
+                { { FRONT, 1 }, { 8, 0 } } };
+        for (int code = 0; code < ALL_MOVES; code++) {
+            if (code < MOVE_COUNT) {
+                PRIMITIVES[code] = new byte[] { (byte) code };
+                continue;
+            }
+            int[][] of = parts[code / 3 - 9];
+            int power = code % 3;
+            byte[] primitives = new byte[of.length];
+            byte[] perm = MOVE_PERMS[0];
+            for (int k = 0; k < of.length; k++) {
+                primitives[k] = (byte) (3 * of[k][0] + (of[k][1] == 1 || power == 1 ? power : 2 - power));
+                perm = k == 0 ? MOVE_PERMS[primitives[k]] : compose(perm, MOVE_PERMS[primitives[k]]);
+            }
+            PRIMITIVES[code] = primitives;
+            MOVE_PERMS[code] = perm;
+        }
+    }
+
+    // Clockwise quarter turn (seen from the tip of axis) of every sticker whose
+    // projection onto axis is at least minDepth. Returns the permutation in
+    // "new[i] = old[perm[i]]" form.
+    private static int[] quarterTurn(int[][] pos, int[] axis, int minDepth) {
+        int[] perm = new int[54];
+        for (int i = 0; i < 54; i++) {
+            int[] p = pos[i];
+            int[] q = p;
+            if (p[0] * axis[0] + p[1] * axis[1] + p[2] * axis[2] >= minDepth) {
+                // v' = (v x a) + a(a.v) is a -90 degree turn about a
+                int dot = p[0] * axis[0] + p[1] * axis[1] + p[2] * axis[2];
+                q = new int[] {
+                        p[1] * axis[2] - p[2] * axis[1] + axis[0] * dot,
+                        p[2] * axis[0] - p[0] * axis[2] + axis[1] * dot,
+                        p[0] * axis[1] - p[1] * axis[0] + axis[2] * dot };
+            }
+            for (int j = 0; j < 54; j++) {
+                if (Arrays.equals(pos[j], q)) {
+                    perm[j] = i;
+                    break;
+                }
+            }
+        }
+        return perm;
+    }
+
+    /** Position of a facelet's center, see {@link #POSITIONS}. Callers must not modify it. */
+    static int[] position(int facelet) {
+        return POSITIONS[facelet];
+    }
+
+    /**
+     * Center of the cubie a facelet belongs to, in the same coordinates: the
+     * face-plane coordinate 3 pulled in to 2. Stickers of one piece share it.
+     */
+    static int[] cubie(int facelet) {
+        int[] p = POSITIONS[facelet].clone();
+        for (int i = 0; i < 3; i++) {
+            if (Math.abs(p[i]) == 3) {
+                p[i] = p[i] / 3 * 2;
+            }
+        }
+        return p;
+    }
+
+    // Permutation equivalent to applying first and then second.
+    static byte[] compose(byte[] first, byte[] second) {
+        byte[] result = new byte[54];
+        for (int i = 0; i < 54; i++) {
+            result[i] = first[second[i]];
+        }
+        return result;
+    }
+
+    private byte[] facelets = new byte[54];
+    private byte[] scratch = new byte[54];
+    private final char[][][] stateView = new char[6][3][3];
+    private boolean viewStale = true;
+
+    public Cube() {
+        makeCube();
+    }
+
+    public Cube(Cube other) {
+        System.arraycopy(other.facelets, 0, facelets, 0, 54);
+    }
+
+    public final void makeCube() {
+        for (int i = 0; i < 54; i++) {
+            facelets[i] = (byte) (i / 9);
+        }
+        viewStale = true;
+    }
+
+    /**
+     * Returns the state as [face][row][col] color characters. The array is a
+     * view that is refreshed on demand and must not be modified by callers.
+     */
+    public char[][][] getState() {
+        if (viewStale) {
+            for (int i = 0; i < 54; i++) {
+                stateView[i / 9][(i % 9) / 3][i % 3] = COLORS[facelets[i]];
+            }
+            viewStale = false;
+        }
+        return stateView;
+    }
+
+    /** Color index (0-5, see {@link #COLORS}) of the facelet at face * 9 + row * 3 + col. */
+    public int getFacelet(int index) {
+        return facelets[index];
+    }
+
+    /**
+     * Fills homeFaces[color] with the face whose center currently shows that
+     * color, so stickers can be read relative to the centers whatever the
+     * cube's orientation or color scheme.
+     */
+    void getHomeFaces(int[] homeFaces) {
+        for (int f = 0; f < 6; f++) {
+            homeFaces[facelets[f * 9 + 4]] = f;
+        }
+    }
+
+    public boolean hasSameState(Cube other) {
+        return Arrays.equals(facelets, other.facelets);
+    }
+
+    public void copyFrom(Cube other) {
+        System.arraycopy(other.facelets, 0, facelets, 0, 54);
+        viewStale = true;
+    }
+
+    /**
+     * Builds a cube from a 54-character facelet string in Kociemba's format
+     * (faces U, R, F, D, L, B; letters naming the face each sticker belongs
+     * to), the inverse of {@link Solver#getFaceletStringFromCube(Cube)}.
+     * Only the characters are checked; {@link CubeValidator#check} tells
+     * whether the stickers form a solvable cube.
+     */
+    static Cube fromFaceletString(CharSequence s) {
+        if (s.length() != 54)
+            throw new IllegalArgumentException("Expected 54 facelets, got " + s.length());
+        Cube cube = new Cube();
+        int[] faces = { UP, RIGHT, FRONT, DOWN, LEFT, BACK };
+        for (int i = 0; i < 54; i++) {
+            int color = FACE_LETTERS.indexOf(s.charAt(i));
+            if (color < 0)
+                throw new IllegalArgumentException("Invalid facelet '" + s.charAt(i) + "' at " + i);
+            cube.facelets[faces[i / 9] * 9 + i % 9] = (byte) color;
+        }
+        return cube;
+    }
+
+    /**
+     * Parses a single move such as "R", "Rw2", "r'", "M", "x" or "Ui" into its
+     * move code, or returns -1 if the token is not a move. Lowercase face
+     * letters are wide turns; rotations may be written in either case.
+     */
+    static int parseMove(String mv) {
+        return parseMove(mv, 0, mv.length());
+    }
+
+    /** Parses the move token occupying s[start, end), without allocating. */
+    static int parseMove(CharSequence s, int start, int end) {
+        if (end <= start || end - start > 3)
+            return -1;
+        int axis = axisOf(s.charAt(start));
+        if (axis < 0)
+            return -1;
+        if (axis < 6 && end - start > 1 && s.charAt(start + 1) == 'w') {
+            axis += WIDE_MOVES / 3;
+            start++;
+        }
+        if (end - start == 1)
+            return 3 * axis;
+        if (end - start > 2)
+            return -1;
+        switch (s.charAt(start + 1)) {
+            case '2':
+                return 3 * axis + 1;
+            case 'i':
+            case 'I':
+            case '\'':
+                return 3 * axis + 2;
+            default:
+                return -1;
+        }
+    }
+
+    /** Axis (move code / 3) a move letter turns about, or -1 if c is not a move letter. */
+    static int axisOf(char c) {
+        return c < AXIS_OF.length ? AXIS_OF[c] : -1;
+    }
+
+    /** Name of a move code in the internal notation ("R", "R2", "Ri", "M", "ri"). */
+    static String moveName(int code) {
+        return MOVE_NAMES[code];
+    }
+
+    /**
+     * The face turns and rotation a slice or wide turn is made of, or just
+     * the code itself for a face turn or rotation. Callers must not modify it.
+     */
+    static byte[] primitives(int code) {
+        return PRIMITIVES[code];
+    }
+
+    /** Facelet permutation of a move code, in "new[i] = old[perm[i]]" form. */
+    static byte[] permutation(int code) {
+        return MOVE_PERMS[code];
+    }
+
+    /** Applies one move token, see {@link #parseMove(String)}. */
+    public void move(String mv) {
+        int code = parseMove(mv);
+        if (code < 0)
+            throw new IllegalArgumentException("Unknown move '" + mv + "'");
+        move(code);
+    }
+
+    public void move(int code) {
+        applyPermutation(MOVE_PERMS[code]);
+    }
+
+    /** Applies a facelet permutation in "new[i] = old[perm[i]]" form. */
+    public void applyPermutation(byte[] perm) {
+        byte[] src = facelets, dst = scratch;
+        for (int i = 0; i < 54; i++) {
+            dst[i] = src[perm[i]];
+        }
+        facelets = dst;
+        scratch = src;
+        viewStale = true;
+    }
+}
@@ -0,0 +1,1378 @@
+package cubesolver;
+
+import com.formdev.flatlaf.FlatDarkLaf;
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Main public class. The file must be named CubeSolverGUI.java.
+ * This class builds the GUI and handles user interaction.
+ *
+ * Modified to fix solving logic, GUI expansion, and overhaul the UI.
+ */
+public class CubeSolverGUI extends JFrame {
+
+    private final Cube cube;
+    private final Solver solver;
+    private final CubePanel cubePanel;
+    private final UnfoldedCubePanel unfoldedCubePanel;
+    private final Playback playback;
+    private JButton playButton, playbackStartButton, playbackEndButton;
+    private JSlider playbackSlider;
+    private JLabel playbackLabel;
+    // Set while the controls are updated from the playback, so the slider's
+    // change events are not taken for user seeks
+    private boolean updatingPlaybackControls;
+    private JLabel scrambleLabel, solutionLengthLabel;
+    private JLabel crossMovesLabel, f2lMovesLabel, ollMovesLabel, pllMovesLabel;
+    private JLabel simulateBestLabel, simulateWorstLabel;
+    private JTextArea simStatsArea;
+    private JButton simStartButton, simCancelButton;
+    private JProgressBar simProgressBar;
+    private LengthHistogram simHistogram;
+    // The simulation in progress, if any: its thread, its progress as shown
+    // by the refresh timer, and its start time for the run rate
+    private Thread simThread;
+    private SimulationProgress simProgress;
+    private long simStartNanos;
+    private Timer simRefreshTimer;
+    private SwingWorker<MoveSequence, Integer> optimalWorker;
+    private JTextArea solutionArea, metricsArea;
+    private JTextField moveEntry, customScrambleEntry, simEntry;
+
+    // Time budget for the "Solve Cube" button
+    private static final long SOLVE_BUDGET_MILLIS = 1000;
+    // ...ended early once a solution this short turns up; most states need 18
+    private static final int SOLVE_TARGET_LENGTH = 18;
+    private static final int METRICS_REFRESH_MILLIS = 500;
+    // Live simulation results are redrawn at this rate however fast runs finish
+    private static final int SIMULATION_REFRESH_MILLIS = 100;
+    // Playback speed slider, in moves per second
+    private static final int MIN_PLAYBACK_SPEED = 1, MAX_PLAYBACK_SPEED = 10, DEFAULT_PLAYBACK_SPEED = 3;
+
+    public CubeSolverGUI() {
+        cube = new Cube();
+        solver = new Solver(cube);
+
+        setTitle("Cube Solver - Java Edition");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout(10, 10)); // Main layout for the frame
+
+        // ---- Left Side: Cube Displays ----
+        JPanel displayPanel = new JPanel(new BorderLayout(5, 5));
+        displayPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        unfoldedCubePanel = new UnfoldedCubePanel(cube);
+        cubePanel = new CubePanel(cube);
+        playback = new Playback(cubePanel, this::updatePlaybackControls);
+        playback.setSpeed(DEFAULT_PLAYBACK_SPEED);
+
+        JPanel rotationPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton yButton = new JButton("<-- Y");
+        yButton.addActionListener(e -> {
+            cube.move("Y");
+            updateCubeDisplay();
+        });
+        JButton yiButton = new JButton("Y' -->");
+        yiButton.addActionListener(e -> {
+            cube.move("Yi");
+            updateCubeDisplay();
+        });
+        rotationPanel.add(new JLabel("Rotate:"));
+        rotationPanel.add(yButton);
+        rotationPanel.add(yiButton);
+
+        displayPanel.add(unfoldedCubePanel, BorderLayout.NORTH);
+        displayPanel.add(cubePanel, BorderLayout.CENTER);
+        displayPanel.add(rotationPanel, BorderLayout.SOUTH);
+
+        add(displayPanel, BorderLayout.WEST);
+
+        // ---- Right Side: Controls ----
+        JPanel controlsContainer = new JPanel(new BorderLayout());
+        controlsContainer.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 10));
+        controlsContainer.add(createControlsPanel(), BorderLayout.CENTER);
+        updatePlaybackControls();
+        add(controlsContainer, BorderLayout.CENTER);
+
+        pack();
+        setMinimumSize(getSize());
+        setLocationRelativeTo(null); // Center on screen
+    }
+
+    private JPanel createControlsPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.gridwidth = GridBagConstraints.REMAINDER;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.weightx = 1.0;
+        gbc.anchor = GridBagConstraints.NORTH;
+
+        // --- Title and Reset ---
+        JLabel titleLabel = new JLabel("Cube Solver Controls", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+        JButton newCubeButton = new JButton("New/Reset Cube");
+        newCubeButton.addActionListener(e -> resetAll());
+        JPanel titlePanel = new JPanel(new BorderLayout());
+        titlePanel.add(titleLabel, BorderLayout.CENTER);
+        titlePanel.add(newCubeButton, BorderLayout.EAST);
+        panel.add(titlePanel, gbc);
+
+        // --- Execute Move ---
+        JPanel movePanel = new JPanel(new BorderLayout(5, 5));
+        movePanel.setBorder(BorderFactory.createTitledBorder("Enter move(s)"));
+        moveEntry = new JTextField(15);
+        movePanel.add(moveEntry, BorderLayout.CENTER);
+        JButton executeButton = new JButton("Execute");
+        executeButton.addActionListener(e -> {
+            try {
+                solver.m(moveEntry.getText());
+            } catch (MoveSequence.NotationException ex) {
+                moveEntry.requestFocusInWindow();
+                moveEntry.setCaretPosition(ex.position);
+                JOptionPane.showMessageDialog(this, "Cannot read the moves: " + ex.getMessage(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            updateCubeDisplay();
+        });
+        movePanel.add(executeButton, BorderLayout.EAST);
+        panel.add(movePanel, gbc);
+
+        // --- Scramble Section ---
+        JPanel scrambleSection = new JPanel(new GridLayout(0, 1, 5, 5));
+        scrambleSection.setBorder(BorderFactory.createTitledBorder("Scramble"));
+
+        scrambleLabel = new JLabel("Scramble will be displayed here");
+        scrambleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        scrambleSection.add(scrambleLabel);
+
+        JPanel scrambleButtons = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton scrambleButton = new JButton("Scramble");
+        scrambleButton.addActionListener(e -> {
+            resetAll(); // FIX: Call resetAll to ensure cube state is clean before scramble
+            solver.scramble();
+            scrambleLabel.setText(
+                    "<html><body style='width: 250px; text-align: center;'>" + solver.getScramble() + "</body></html>");
+            updateCubeDisplay();
+        });
+        scrambleButtons.add(scrambleButton);
+        JButton copyScrambleButton = new JButton("Copy Scramble");
+        copyScrambleButton.addActionListener(e -> toClipboard(solver.getScramble()));
+        scrambleButtons.add(copyScrambleButton);
+        scrambleSection.add(scrambleButtons);
+
+        JPanel customScramblePanel = new JPanel(new BorderLayout(5, 5));
+        customScrambleEntry = new JTextField(); // FIX: Removed default text
+        customScramblePanel.add(customScrambleEntry, BorderLayout.CENTER);
+        JButton customScrambleButton = new JButton("Apply Custom");
+        customScrambleButton.addActionListener(e -> {
+            MoveSequence moves;
+            try {
+                moves = MoveSequence.parse(customScrambleEntry.getText());
+            } catch (MoveSequence.NotationException ex) {
+                customScrambleEntry.requestFocusInWindow();
+                customScrambleEntry.setCaretPosition(ex.position);
+                JOptionPane.showMessageDialog(this, "Cannot read the scramble: " + ex.getMessage(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            resetAll(); // FIX: Call resetAll to ensure cube state is clean before scramble
+            solver.scramble(moves);
+            scrambleLabel.setText(
+                    "<html><body style='width: 250px; text-align: center;'>" + solver.getScramble() + "</body></html>");
+            updateCubeDisplay();
+        });
+        customScramblePanel.add(customScrambleButton, BorderLayout.EAST);
+        scrambleSection.add(customScramblePanel);
+        panel.add(scrambleSection, gbc);
+
+        // --- Solution Section ---
+        JPanel solutionSection = new JPanel(new BorderLayout(5, 5));
+        solutionSection.setBorder(BorderFactory.createTitledBorder("Solution"));
+
+        JPanel solveButtons = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton solveButton = new JButton("Solve Cube");
+        solveButton.addActionListener(e -> solveAnytime(solveButton));
+
+        solveButtons.add(solveButton);
+
+        JButton optimalButton = new JButton("Solve Optimally");
+        optimalButton.addActionListener(e -> solveOptimally(optimalButton));
+        solveButtons.add(optimalButton);
+
+        JButton copySolutionButton = new JButton("Copy Solution");
+        copySolutionButton.addActionListener(e -> toClipboard(solver.getMoves()));
+        solveButtons.add(copySolutionButton);
+        solutionSection.add(solveButtons, BorderLayout.NORTH);
+
+        solutionArea = new JTextArea("Solution will be displayed here", 4, 25);
+        solutionArea.setLineWrap(true);
+        solutionArea.setWrapStyleWord(true);
+        solutionArea.setEditable(false);
+        solutionArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        solutionSection.add(new JScrollPane(solutionArea), BorderLayout.CENTER);
+
+        // FIX: Step-by-step buttons are now functional
+        JPanel stepSolvePanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton crossBtn = new JButton("Cross");
+        crossBtn.addActionListener(e -> solveStep(solver::solveCross, solver::getCrossMoves));
+        stepSolvePanel.add(crossBtn);
+
+        JButton f2lBtn = new JButton("F2L");
+        f2lBtn.addActionListener(e -> solveStep(solver::solveF2L, solver::getF2LMoves));
+        stepSolvePanel.add(f2lBtn);
+
+        JButton ollBtn = new JButton("OLL");
+        ollBtn.addActionListener(e -> solveStep(solver::solveOLL, solver::getOLLMoves));
+        stepSolvePanel.add(ollBtn);
+
+        JButton pllBtn = new JButton("PLL");
+        pllBtn.addActionListener(e -> solveStep(solver::solvePLL, solver::getPLLMoves));
+        stepSolvePanel.add(pllBtn);
+
+        solutionSection.add(stepSolvePanel, BorderLayout.SOUTH);
+        panel.add(solutionSection, gbc);
+
+        // --- Playback Section ---
+        JPanel playbackSection = new JPanel(new BorderLayout(5, 5));
+        playbackSection.setBorder(BorderFactory.createTitledBorder("Playback"));
+
+        JPanel playbackButtons = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        playbackStartButton = new JButton("|<");
+        playbackStartButton.addActionListener(e -> playback.seek(0));
+        playButton = new JButton("Play");
+        playButton.addActionListener(e -> {
+            if (playback.isPlaying())
+                playback.pause();
+            else
+                playback.play();
+        });
+        playbackEndButton = new JButton(">|");
+        playbackEndButton.addActionListener(e -> playback.seek(playback.length()));
+        playbackButtons.add(playbackStartButton);
+        playbackButtons.add(playButton);
+        playbackButtons.add(playbackEndButton);
+        playbackButtons.add(new JLabel("Speed:"));
+        JSlider speedSlider = new JSlider(MIN_PLAYBACK_SPEED, MAX_PLAYBACK_SPEED, DEFAULT_PLAYBACK_SPEED);
+        speedSlider.setPreferredSize(new Dimension(90, speedSlider.getPreferredSize().height));
+        speedSlider.setToolTipText("Moves per second");
+        speedSlider.addChangeListener(e -> playback.setSpeed(speedSlider.getValue()));
+        playbackButtons.add(speedSlider);
+        playbackSection.add(playbackButtons, BorderLayout.NORTH);
+
+        playbackSlider = new JSlider(0, 0, 0);
+        playbackSlider.addChangeListener(e -> {
+            if (!updatingPlaybackControls)
+                playback.seek(playbackSlider.getValue());
+        });
+        playbackSection.add(playbackSlider, BorderLayout.CENTER);
+        playbackLabel = new JLabel(" ", SwingConstants.CENTER);
+        playbackSection.add(playbackLabel, BorderLayout.SOUTH);
+        panel.add(playbackSection, gbc);
+
+        // --- Stats Section ---
+        JPanel statsSection = new JPanel(new BorderLayout(5, 5));
+        statsSection.setBorder(BorderFactory.createTitledBorder("Move Counts"));
+
+        JPanel countsPanel = new JPanel(new GridLayout(2, 4));
+        countsPanel.add(new JLabel("Cross:", SwingConstants.RIGHT));
+        crossMovesLabel = new JLabel("0", SwingConstants.LEFT);
+        countsPanel.add(crossMovesLabel);
+        countsPanel.add(new JLabel("OLL:", SwingConstants.RIGHT));
+        ollMovesLabel = new JLabel("0", SwingConstants.LEFT);
+        countsPanel.add(ollMovesLabel);
+        countsPanel.add(new JLabel("F2L:", SwingConstants.RIGHT));
+        f2lMovesLabel = new JLabel("0", SwingConstants.LEFT);
+        countsPanel.add(f2lMovesLabel);
+        countsPanel.add(new JLabel("PLL:", SwingConstants.RIGHT));
+        pllMovesLabel = new JLabel("0", SwingConstants.LEFT);
+        countsPanel.add(pllMovesLabel);
+        statsSection.add(countsPanel, BorderLayout.CENTER);
+
+        solutionLengthLabel = new JLabel("Total Moves: 0", SwingConstants.CENTER);
+        solutionLengthLabel.setFont(new Font("SansSerif", Font.BOLD, 12));
+        statsSection.add(solutionLengthLabel, BorderLayout.SOUTH);
+        panel.add(statsSection, gbc);
+
+        // --- Simulations Section ---
+        JPanel simSection = new JPanel(new BorderLayout(5, 5));
+        simSection.setBorder(BorderFactory.createTitledBorder("Simulations"));
+
+        JPanel simPanel = new JPanel();
+        simEntry = new JTextField("25", 5);
+        simPanel.add(new JLabel("Solves:"));
+        simPanel.add(simEntry);
+        simStartButton = new JButton("Start Simulations");
+        simStartButton.addActionListener(e -> runSimulations());
+        simPanel.add(simStartButton);
+        simCancelButton = new JButton("Cancel");
+        simCancelButton.setEnabled(false);
+        simCancelButton.addActionListener(e -> cancelSimulations());
+        simPanel.add(simCancelButton);
+        simSection.add(simPanel, BorderLayout.NORTH);
+
+        JPanel simResultsPanel = new JPanel(new GridLayout(0, 1));
+        simProgressBar = new JProgressBar();
+        simProgressBar.setStringPainted(true);
+        simProgressBar.setString(" ");
+        simulateBestLabel = new JLabel("Best: -");
+        simulateWorstLabel = new JLabel("Worst: -");
+        simResultsPanel.add(simProgressBar);
+        simResultsPanel.add(simulateBestLabel);
+        simResultsPanel.add(simulateWorstLabel);
+        simSection.add(simResultsPanel, BorderLayout.CENTER);
+        JPanel simStatsPanel = new JPanel(new BorderLayout(5, 5));
+        simHistogram = new LengthHistogram();
+        simStatsPanel.add(simHistogram, BorderLayout.NORTH);
+        simStatsArea = new JTextArea(8, 40);
+        simStatsArea.setEditable(false);
+        simStatsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        simStatsPanel.add(simStatsArea, BorderLayout.CENTER);
+        simSection.add(simStatsPanel, BorderLayout.SOUTH);
+        simRefreshTimer = new Timer(SIMULATION_REFRESH_MILLIS, e -> showSimulationProgress());
+
+        panel.add(simSection, gbc);
+
+        // --- Performance Section (collapsed by default) ---
+        JPanel perfSection = new JPanel(new BorderLayout(5, 5));
+        JToggleButton perfToggle = new JToggleButton("Show Performance Stats");
+        metricsArea = new JTextArea(Metrics.Stage.values().length + 2, 40);
+        metricsArea.setEditable(false);
+        metricsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        JScrollPane metricsScroll = new JScrollPane(metricsArea);
+        metricsScroll.setVisible(false);
+        // Refresh only while the panel is open
+        Timer metricsTimer = new Timer(METRICS_REFRESH_MILLIS, e -> metricsArea.setText(Metrics.report()));
+        perfToggle.addActionListener(e -> {
+            boolean open = perfToggle.isSelected();
+            perfToggle.setText(open ? "Hide Performance Stats" : "Show Performance Stats");
+            metricsScroll.setVisible(open);
+            if (open) {
+                metricsArea.setText(Metrics.report());
+                metricsTimer.start();
+            } else {
+                metricsTimer.stop();
+            }
+            pack();
+        });
+        perfSection.add(perfToggle, BorderLayout.NORTH);
+        perfSection.add(metricsScroll, BorderLayout.CENTER);
+        panel.add(perfSection, gbc);
+
+        // --- Export Button ---
+        JButton exportButton = new JButton("Export to alg.cubing.net");
+        exportButton.addActionListener(e -> exportToWeb());
+        panel.add(exportButton, gbc);
+
+        return panel;
+    }
+
+    // FIX: Helper method for the new step-by-step buttons
+    // private void solveStep(Runnable solveMethod,
+    // java.util.function.Supplier<String> movesSupplier) {
+    // solveMethod.run();
+    // solutionArea.setText(movesSupplier.get());
+    // updateCubeDisplay();
+    // updateMoveCounts(solver.getStepMovesCount(), solver.getSolutionLength());
+    // }
+
+    private void solveStep(Runnable solveMethod, Supplier<String> movesSupplier) {
+        solveMethod.run();
+        String moves = movesSupplier.get();
+
+        // Do NOT apply moves again; they're already applied in the solver step!
+        solutionArea.setText(moves);
+        updateCubeDisplay();
+        updateMoveCounts(solver.getStepMovesCount(), solver.getSolutionLength());
+    }
+
+    // Runs an anytime solve in the background on a copy of the cube, racing
+    // the six orientation/inverse searches. Each shorter solution replaces
+    // the text in the solution area as it is found; the best one is applied
+    // once the budget is spent or the target length is reached.
+    private void solveAnytime(JButton solveButton) {
+        if (!checkSolvable())
+            return;
+        Cube start = new Cube(cube);
+        Solver background = new Solver(new Cube(cube));
+        solveButton.setEnabled(false);
+        solutionArea.setText("Solving...");
+
+        new SwingWorker<String, String>() {
+            @Override
+            protected String doInBackground() {
+                return background.raceSolve(SOLVE_BUDGET_MILLIS, SOLVE_TARGET_LENGTH, solution -> publish(solution));
+            }
+
+            @Override
+            protected void process(List<String> improvements) {
+                String latest = improvements.get(improvements.size() - 1).trim();
+                solutionArea.setText(latest + "\n(" + MoveSequence.parse(latest).length() + " moves, refining...)");
+            }
+
+            @Override
+            protected void done() {
+                solveButton.setEnabled(true);
+                String solution;
+                try {
+                    solution = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    solutionArea.setText("Solve failed: " + ex.getMessage());
+                    return;
+                }
+                if (solution.startsWith("Error")) {
+                    solutionArea.setText(solution);
+                } else if (cube.hasSameState(start)) {
+                    // Only apply if the cube was not changed while solving
+                    solver.applySolution(solution);
+                    updateSolutionInfo();
+                    updateCubeDisplay();
+                    startPlayback(start);
+                }
+            }
+        }.execute();
+    }
+
+    // Runs the optimal search in the background on all cores. The button
+    // cancels it while it runs; the depth being searched is shown meanwhile.
+    private void solveOptimally(JButton optimalButton) {
+        if (optimalWorker != null) {
+            optimalWorker.cancel(true);
+            return;
+        }
+        if (!checkSolvable())
+            return;
+        Cube start = new Cube(cube);
+        Solver background = new Solver(new Cube(cube));
+        optimalButton.setText("Cancel Optimal");
+        solutionArea.setText("Loading optimal solver tables...");
+
+        optimalWorker = new SwingWorker<MoveSequence, Integer>() {
+            @Override
+            protected MoveSequence doInBackground() {
+                return background.optimalSolve(Runtime.getRuntime().availableProcessors(), depth -> publish(depth));
+            }
+
+            @Override
+            protected void process(List<Integer> depths) {
+                solutionArea.setText("Searching for an optimal solution: depth " + depths.get(depths.size() - 1)
+                        + "...");
+            }
+
+            @Override
+            protected void done() {
+                optimalWorker = null;
+                optimalButton.setText("Solve Optimally");
+                MoveSequence solution;
+                try {
+                    solution = get();
+                } catch (CancellationException ex) {
+                    solutionArea.setText("Optimal search cancelled");
+                    return;
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    solutionArea.setText("Optimal search failed: " + cause.getMessage());
+                    return;
+                }
+                if (cube.hasSameState(start)) {
+                    // Only apply if the cube was not changed while solving
+                    solver.applySolution(solution);
+                    updateSolutionInfo();
+                    updateCubeDisplay();
+                    startPlayback(start);
+                    solutionArea.append("\n(optimal, " + solution.length() + " moves)");
+                }
+            }
+        };
+        optimalWorker.execute();
+    }
+
+    // Says what is wrong with the cube, if anything, before a solve starts
+    private boolean checkSolvable() {
+        CubeValidator.Problem problem = CubeValidator.check(cube);
+        if (problem != null)
+            solutionArea.setText("This cube cannot be solved: " + problem.message + ".");
+        return problem == null;
+    }
+
+    private void applyMoves(String movesString) {
+        MoveSequence.parse(movesString).applyTo(cube);
+    }
+
+    // Runs the simulations on a background thread; the refresh timer shows
+    // their progress and finishSimulations() the outcome
+    private void runSimulations() {
+        int numSims;
+        try {
+            numSims = Integer.parseInt(simEntry.getText());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Please enter a valid number for simulations.", "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (numSims <= 0) {
+            JOptionPane.showMessageDialog(this, "Please enter a positive number of solves.", "Warning",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        // Blocks of one run: every finished run shows up at the next refresh,
+        // and a cancel loses at most the runs in flight
+        SimulationProgress progress = SimulationProgress.open(numSims, ThreadLocalRandom.current().nextLong(), 1,
+                null);
+        int threads = Runtime.getRuntime().availableProcessors();
+        simProgress = progress;
+        simStartNanos = System.nanoTime();
+        simProgressBar.setMaximum(numSims);
+        simStartButton.setEnabled(false);
+        simCancelButton.setEnabled(true);
+        showSimulationProgress();
+        simRefreshTimer.start();
+
+        simThread = new Thread(() -> {
+            Solver.SimulationResult result;
+            try {
+                result = solver.simulation(progress, threads);
+            } catch (RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    finishSimulations(null);
+                    JOptionPane.showMessageDialog(this, "Simulation failed: " + ex.getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> finishSimulations(result));
+        }, "simulation");
+        simThread.setDaemon(true);
+        simThread.start();
+    }
+
+    // Interrupting the simulation thread stops the workers, see Solver.simulation
+    private void cancelSimulations() {
+        if (simThread != null) {
+            simThread.interrupt();
+            simCancelButton.setEnabled(false);
+        }
+    }
+
+    // Refresh timer tick: one snapshot of the merged results so far
+    private void showSimulationProgress() {
+        if (simProgress != null)
+            showSimulationResult(simProgress.result(), simProgress.runs());
+    }
+
+    private void showSimulationResult(Solver.SimulationResult result, int numSims) {
+        double seconds = (System.nanoTime() - simStartNanos) / 1e9;
+        simProgressBar.setValue(result.runs);
+        simProgressBar.setString(String.format("%d / %d runs, %.1f runs/s", result.runs, numSims,
+                seconds > 0 ? result.runs / seconds : 0));
+        simHistogram.setStats(result.moves);
+        simStatsArea.setText(result.statsReport());
+        if (result.runs == 0)
+            return;
+        simulateBestLabel.setText(String.format("Best: #%d with %d moves (seed %d)", result.bestRun,
+                result.bestMoves, result.seed));
+        simulateWorstLabel.setText(String.format(
+                "<html><body style='width: 300px'>Worst: #%d with %d moves (Scramble: %s)</body></html>",
+                result.worstRun,
+                result.worstMoves, result.worstScramble));
+    }
+
+    // Back on the EDT once the simulation thread is done; result is null if it failed
+    private void finishSimulations(Solver.SimulationResult result) {
+        simRefreshTimer.stop();
+        int numSims = simProgress.runs();
+        simThread = null;
+        simProgress = null;
+        simStartButton.setEnabled(true);
+        simCancelButton.setEnabled(false);
+        if (result == null)
+            return;
+        showSimulationResult(result, numSims);
+        if (result.runs < numSims)
+            simProgressBar.setString(simProgressBar.getString() + " (cancelled)");
+        if (result.runs == 0)
+            return;
+
+        // Display best case
+        // FIX: Instead of creating a new cube, reset the main cube instance.
+        // This prevents the GUI and the Solver from desynchronizing.
+        this.cube.makeCube();
+        solver.scramble(result.bestScramble);
+        Cube scrambled = new Cube(cube);
+        solver.solve();
+        updateSolutionInfo();
+        updateCubeDisplay();
+        startPlayback(scrambled);
+
+        scrambleLabel.setText(
+                "<html><body style='width: 250px; text-align: center;'>" + result.bestScramble + "</body></html>");
+    }
+
+    private void resetSolverState() {
+        cube.makeCube();
+        solver.reset();
+        scrambleLabel.setText("Scramble will be displayed here");
+        customScrambleEntry.setText("");
+        solutionArea.setText("Solution will be displayed here");
+        simulateBestLabel.setText("Best: -");
+        simulateWorstLabel.setText("Worst: -");
+        simStatsArea.setText("");
+        if (simProgress == null) {
+            simProgressBar.setValue(0);
+            simProgressBar.setString(" ");
+            simHistogram.setStats(null);
+        }
+        updateMoveCounts(new int[] { 0, 0, 0, 0 }, 0);
+    }
+
+    private void resetAll() {
+        resetSolverState();
+        updateCubeDisplay();
+    }
+
+    // Any change to the live cube ends playback, which showed its own copy
+    private void updateCubeDisplay() {
+        if (playback.isLoaded())
+            playback.clear();
+        // setCube repaints; Swing coalesces requests that arrive faster than frames
+        cubePanel.setCube(cube);
+        unfoldedCubePanel.setCube(cube);
+    }
+
+    // Plays the current solution from the given pre-solution state; the live
+    // cube is already solved, the panels show the playback's copy meanwhile
+    private void startPlayback(Cube start) {
+        playback.load(start, MoveSequence.parse(solver.getMoves()));
+        cubePanel.setCube(playback.getCube());
+        unfoldedCubePanel.setCube(playback.getCube());
+        playback.play();
+    }
+
+    private void updatePlaybackControls() {
+        int length = playback.length();
+        int position = playback.getPosition();
+        updatingPlaybackControls = true;
+        playbackSlider.setMaximum(length);
+        playbackSlider.setValue(position);
+        updatingPlaybackControls = false;
+        playbackSlider.setEnabled(length > 0);
+        playbackStartButton.setEnabled(length > 0);
+        playbackEndButton.setEnabled(length > 0);
+        playButton.setEnabled(length > 0);
+        playButton.setText(playback.isPlaying() ? "Pause" : "Play");
+        int next = playback.nextMove();
+        playbackLabel.setText(length == 0 ? " "
+                : "Move " + position + " / " + length
+                        + (next >= 0 ? "   next: " + Cube.moveName(next).replace('i', '\'') : ""));
+        unfoldedCubePanel.repaint();
+    }
+
+    private void updateSolutionInfo() {
+        solutionArea.setText(solver.getMoves());
+        updateMoveCounts(solver.getStepMovesCount(), solver.getSolutionLength());
+    }
+
+    private void updateMoveCounts(int[] steps, int total) {
+        crossMovesLabel.setText(String.valueOf(steps[0]));
+        f2lMovesLabel.setText(String.valueOf(steps[1]));
+        ollMovesLabel.setText(String.valueOf(steps[2]));
+        pllMovesLabel.setText(String.valueOf(steps[3]));
+        solutionLengthLabel.setText("Total Moves: " + total);
+    }
+
+    private void toClipboard(String text) {
+        if (text == null || text.trim().isEmpty())
+            return;
+        StringSelection selection = new StringSelection(text);
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, null);
+    }
+
+    private void exportToWeb() {
+        String scramble = solver.getScramble().replace("'", "-").replace(" ", "_");
+        String alg = solver.getMoves().replace("'", "-").replace(" ", "_");
+        String url = "https://alg.cubing.net/?setup=" + scramble + "&alg=" + alg;
+        try {
+            Desktop.getDesktop().browse(new URI(url));
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Could not open browser.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    public static void main(String[] args) {
+        FlatDarkLaf.setup();
+        SwingUtilities.invokeLater(() -> new CubeSolverGUI().setVisible(true));
+
+        // Map (or on first run build and persist) the two-phase tables while the window comes up
+        Metrics.registerMBean();
+        Thread warmup = new Thread(() -> {
+            long start = System.nanoTime();
+            TwoPhaseSearch.loadTables();
+            Metrics.stop(Metrics.Stage.TABLE_WARMUP, start);
+            // Have random-state scrambles ready before the first click
+            ScrambleSource.SHARED.start();
+        }, "table-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+}
+
+/**
+ * Offscreen sticker image behind the cube panels. A panel registers each
+ * sticker's shape and facelet once; {@link #render} then repaints only the
+ * area of the stickers whose color changed since the previous frame, so a
+ * frame costs one image blit plus the stickers that actually moved. Colors
+ * come from one shared palette instead of being allocated per sticker.
+ */
+final class StickerCanvas {
+    // Indexed like Cube.COLORS: W, G, R, O, Y, B
+    static final Color[] PALETTE = { Color.WHITE, new Color(0, 155, 72), new Color(183, 18, 52),
+            new Color(255, 88, 0), new Color(255, 213, 0), new Color(0, 70, 173) };
+    private static final int HIDDEN = -2, NOT_DRAWN = -1;
+
+    private final Stroke outline;
+    private final List<Shape> shapes = new ArrayList<>();
+    private int[] facelets = new int[0];
+    private boolean[] hideable = new boolean[0];
+    private boolean transparent;
+    private int width, height;
+
+    // Rebuilt with the image: what each sticker shows and its pixel bounds,
+    // including the outline and antialiasing
+    private BufferedImage image;
+    private double scale;
+    private int[] drawn;
+    private Rectangle[] pixelBounds;
+    private boolean[] redraw;
+
+    StickerCanvas(Stroke outline) {
+        this.outline = outline;
+    }
+
+    /**
+     * Adds a sticker, drawn after those added before it. Hideable stickers
+     * are drawn as a gray outline in transparent mode.
+     */
+    void add(Shape shape, int facelet, boolean hideable) {
+        int n = shapes.size();
+        shapes.add(shape);
+        facelets = Arrays.copyOf(facelets, n + 1);
+        facelets[n] = facelet;
+        this.hideable = Arrays.copyOf(this.hideable, n + 1);
+        this.hideable[n] = hideable;
+        Rectangle bounds = outline.createStrokedShape(shape).getBounds();
+        width = Math.max(width, bounds.x + bounds.width + 1);
+        height = Math.max(height, bounds.y + bounds.height + 1);
+        image = null;
+    }
+
+    void setTransparent(boolean transparent) {
+        if (this.transparent != transparent) {
+            this.transparent = transparent;
+            image = null;
+        }
+    }
+
+    /**
+     * Brings the image up to date with cube and returns it. The image has
+     * the device scale of the target graphics and is drawn back at logical
+     * size, so it stays sharp on HiDPI screens.
+     */
+    BufferedImage render(Cube cube, Graphics2D target) {
+        double deviceScale = target.getTransform().getScaleX();
+        boolean full = image == null || deviceScale != scale;
+        if (full)
+            createImage(target.getDeviceConfiguration(), deviceScale);
+
+        // Clearing the rectangle around the changed stickers and redrawing,
+        // in the original order, every sticker that reaches into it gives the
+        // same pixels as a full repaint
+        Rectangle dirty = null;
+        for (int i = 0; i < drawn.length; i++) {
+            if (drawn[i] == color(cube, i))
+                continue;
+            if (dirty == null)
+                dirty = new Rectangle(pixelBounds[i]);
+            else
+                dirty.add(pixelBounds[i]);
+        }
+        if (dirty == null)
+            return image;
+        for (int i = 0; i < drawn.length; i++) {
+            redraw[i] = full || dirty.intersects(pixelBounds[i]);
+        }
+
+        Graphics2D g = image.createGraphics();
+        if (!full) {
+            g.setClip(dirty);
+            g.setComposite(AlphaComposite.Clear);
+            g.fill(dirty);
+            g.setComposite(AlphaComposite.SrcOver);
+        }
+        g.scale(scale, scale);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setStroke(outline);
+        for (int i = 0; i < drawn.length; i++) {
+            if (!redraw[i])
+                continue;
+            redraw[i] = false;
+            drawn[i] = color(cube, i);
+            Shape shape = shapes.get(i);
+            if (drawn[i] == HIDDEN) {
+                g.setColor(Color.GRAY);
+            } else {
+                g.setColor(PALETTE[drawn[i]]);
+                g.fill(shape);
+                g.setColor(Color.BLACK);
+            }
+            g.draw(shape);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private int color(Cube cube, int sticker) {
+        return transparent && hideable[sticker] ? HIDDEN : cube.getFacelet(facelets[sticker]);
+    }
+
+    private void createImage(GraphicsConfiguration config, double deviceScale) {
+        scale = deviceScale;
+        // A compatible image can be cached in video memory by the pipeline
+        image = config.createCompatibleImage((int) Math.ceil(width * scale), (int) Math.ceil(height * scale),
+                Transparency.TRANSLUCENT);
+        int n = shapes.size();
+        drawn = new int[n];
+        Arrays.fill(drawn, NOT_DRAWN);
+        redraw = new boolean[n];
+        pixelBounds = new Rectangle[n];
+        AffineTransform toPixels = AffineTransform.getScaleInstance(scale, scale);
+        for (int i = 0; i < n; i++) {
+            Rectangle bounds = toPixels.createTransformedShape(outline.createStrokedShape(shapes.get(i))).getBounds();
+            bounds.grow(1, 1);
+            pixelBounds[i] = bounds;
+        }
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+}
+
+/**
+ * Geometry of CubePanel's view: an oblique projection of the cube showing
+ * the U, F and R faces, plus precomputed frames of a layer turning in it.
+ * Each quarter turn is cut into STEPS angles, and for every face and angle
+ * the projected corners and visibility of the layer's 21 stickers and its
+ * cut face are computed once, so drawing a frame is a table lookup.
+ */
+final class TurnFrames {
+    static final int STEPS = 32;
+    private static final int ANGLES = 4 * STEPS;
+
+    // Screen position of the center and of the x, y and z unit vectors
+    // (Cube.position coordinates, so a sticker is 2 units wide), and the
+    // direction towards the viewer, which the projection flattens
+    private static final double ORIGIN_X = 115, ORIGIN_Y = 140;
+    private static final double[] SCREEN_X = { 16.5, 0, -16.5 }, SCREEN_Y = { 10, -25, 10 };
+    private static final double[] VIEW = { 1, 0.8, 1 };
+
+    // Quad q of a face's layer is LAYER[face][q], or the cut face for q == 21
+    private static final int LAYER_SIZE = 21, CUT = LAYER_SIZE;
+    private static final int[][] LAYER = new int[6][LAYER_SIZE];
+    // Corners of every sticker at rest, and which stickers face the viewer
+    private static final int[] REST_X = new int[54 * 4], REST_Y = new int[54 * 4];
+    private static final boolean[] FACING = new boolean[54];
+    private static final int[][] CUT_X = new int[6][4], CUT_Y = new int[6][4];
+    // FRAME_X[face][angle][4 * q + corner]; FRAME_VISIBLE[face][angle] has bit q set if quad q faces the viewer
+    private static final int[][][] FRAME_X = new int[6][ANGLES][4 * (LAYER_SIZE + 1)];
+    private static final int[][][] FRAME_Y = new int[6][ANGLES][4 * (LAYER_SIZE + 1)];
+    private static final long[][] FRAME_VISIBLE = new long[6][ANGLES];
+
+    static {
+        double[][] corners = new double[4][];
+        for (int i = 0; i < 54; i++) {
+            int[] normal = Cube.FACE_NORMALS[i / 9];
+            stickerCorners(Cube.position(i), normal, 1, corners);
+            project(corners, REST_X, REST_Y, 4 * i);
+            FACING[i] = dot(normal, VIEW) > 0;
+        }
+        for (int f = 0; f < 6; f++) {
+            int[] normal = Cube.FACE_NORMALS[f];
+            int n = 0;
+            for (int i = 0; i < 54; i++) {
+                if (dot(normal, Cube.position(i)) >= 2)
+                    LAYER[f][n++] = i;
+            }
+            stickerCorners(normal, normal, 3, corners);
+            project(corners, CUT_X[f], CUT_Y[f], 0);
+
+            for (int a = 0; a < ANGLES; a++) {
+                // Clockwise seen from the face, as Cube.move turns it
+                double angle = -a * Math.PI / 2 / STEPS;
+                for (int q = 0; q <= LAYER_SIZE; q++) {
+                    double[] n2;
+                    if (q == CUT) {
+                        stickerCorners(normal, normal, 3, corners);
+                        n2 = new double[] { -normal[0], -normal[1], -normal[2] };
+                    } else {
+                        int i = LAYER[f][q];
+                        stickerCorners(Cube.position(i), Cube.FACE_NORMALS[i / 9], 1, corners);
+                        n2 = rotate(toDouble(Cube.FACE_NORMALS[i / 9]), normal, angle);
+                    }
+                    for (int c = 0; c < 4; c++) {
+                        corners[c] = rotate(corners[c], normal, angle);
+                    }
+                    project(corners, FRAME_X[f][a], FRAME_Y[f][a], 4 * q);
+                    if (dot(n2, VIEW) > 0)
+                        FRAME_VISIBLE[f][a] |= 1L << q;
+                }
+            }
+        }
+    }
+
+    private TurnFrames() {
+    }
+
+    /** The sticker's outline when no layer is turning. */
+    static Polygon sticker(int facelet) {
+        return new Polygon(Arrays.copyOfRange(REST_X, 4 * facelet, 4 * facelet + 4),
+                Arrays.copyOfRange(REST_Y, 4 * facelet, 4 * facelet + 4), 4);
+    }
+
+    /**
+     * Draws cube with the layer of face turn move the given fraction of the
+     * way through it. xs and ys are four-element scratch arrays, so a frame
+     * allocates nothing.
+     */
+    static void draw(Graphics2D g, Cube cube, int move, double fraction, int[] xs, int[] ys) {
+        int face = move / 3;
+        int quarters = move % 3 == 2 ? -1 : move % 3 + 1;
+        int angle = Math.floorMod((int) Math.round(fraction * quarters * STEPS), ANGLES);
+        int[] normal = Cube.FACE_NORMALS[face];
+        // The layer and the rest are convex and split by a plane, so the one
+        // on the far side of that plane goes first
+        boolean layerInFront = dot(normal, VIEW) > 0;
+        if (layerInFront)
+            drawRest(g, cube, face, xs, ys);
+        int[] frameX = FRAME_X[face][angle], frameY = FRAME_Y[face][angle];
+        long visible = FRAME_VISIBLE[face][angle];
+        for (int q = 0; q <= LAYER_SIZE; q++) {
+            if ((visible & 1L << q) == 0)
+                continue;
+            Color color = q == CUT ? null : StickerCanvas.PALETTE[cube.getFacelet(LAYER[face][q])];
+            drawQuad(g, frameX, frameY, 4 * q, color, xs, ys);
+        }
+        if (!layerInFront)
+            drawRest(g, cube, face, xs, ys);
+    }
+
+    private static void drawRest(Graphics2D g, Cube cube, int face, int[] xs, int[] ys) {
+        int[] normal = Cube.FACE_NORMALS[face];
+        if (dot(normal, VIEW) > 0)
+            drawQuad(g, CUT_X[face], CUT_Y[face], 0, null, xs, ys);
+        for (int i = 0; i < 54; i++) {
+            if (FACING[i] && dot(normal, Cube.position(i)) < 2)
+                drawQuad(g, REST_X, REST_Y, 4 * i, StickerCanvas.PALETTE[cube.getFacelet(i)], xs, ys);
+        }
+    }
+
+    // A null color is the black inside of the cube
+    private static void drawQuad(Graphics2D g, int[] allX, int[] allY, int offset, Color color, int[] xs, int[] ys) {
+        System.arraycopy(allX, offset, xs, 0, 4);
+        System.arraycopy(allY, offset, ys, 0, 4);
+        g.setColor(color != null ? color : Color.BLACK);
+        g.fillPolygon(xs, ys, 4);
+        if (color != null) {
+            g.setColor(Color.BLACK);
+            g.drawPolygon(xs, ys, 4);
+        }
+    }
+
+    // Corners, in order around the square, of the square of the given half
+    // size centered on center and facing along normal
+    private static void stickerCorners(int[] center, int[] normal, int halfSize, double[][] corners) {
+        int u = normal[0] != 0 ? 1 : 0, v = normal[2] != 0 ? 1 : 2;
+        int[][] signs = { { -1, -1 }, { 1, -1 }, { 1, 1 }, { -1, 1 } };
+        for (int c = 0; c < 4; c++) {
+            double[] p = toDouble(center);
+            p[u] += signs[c][0] * halfSize;
+            p[v] += signs[c][1] * halfSize;
+            corners[c] = p;
+        }
+    }
+
+    private static void project(double[][] corners, int[] xs, int[] ys, int offset) {
+        for (int c = 0; c < 4; c++) {
+            double[] p = corners[c];
+            xs[offset + c] = (int) Math.round(ORIGIN_X + dot(SCREEN_X, p));
+            ys[offset + c] = (int) Math.round(ORIGIN_Y + dot(SCREEN_Y, p));
+        }
+    }
+
+    // Right-handed rotation of p by angle about the unit axis
+    private static double[] rotate(double[] p, int[] axis, double angle) {
+        double cos = Math.cos(angle), sin = Math.sin(angle), along = dot(axis, p) * (1 - cos);
+        return new double[] {
+                p[0] * cos + (axis[1] * p[2] - axis[2] * p[1]) * sin + axis[0] * along,
+                p[1] * cos + (axis[2] * p[0] - axis[0] * p[2]) * sin + axis[1] * along,
+                p[2] * cos + (axis[0] * p[1] - axis[1] * p[0]) * sin + axis[2] * along };
+    }
+
+    private static double dot(int[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double dot(int[] a, int[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double[] toDouble(int[] p) {
+        return new double[] { p[0], p[1], p[2] };
+    }
+}
+
+/**
+ * A custom JPanel for rendering a 3D representation of the Cube. While a
+ * playback turn is in progress the turning layer is drawn from the
+ * precomputed {@link TurnFrames}; otherwise the cached sticker image is used.
+ */
+class CubePanel extends JPanel {
+
+    private static final Stroke OUTLINE = new BasicStroke(2);
+
+    private Cube cube;
+    private boolean isTransparent = false;
+    private final StickerCanvas canvas = new StickerCanvas(OUTLINE);
+    // Turn in progress, or -1; and scratch corners for drawing it
+    private int turnMove = -1;
+    private double turnFraction;
+    private final int[] quadX = new int[4], quadY = new int[4];
+
+    public CubePanel(Cube cube) {
+        this.cube = cube;
+        setPreferredSize(new Dimension(230, 230));
+        setOpaque(false);
+        initializeCanvas();
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                isTransparent = !isTransparent;
+                canvas.setTransparent(isTransparent);
+                repaint();
+            }
+        });
+    }
+
+    public void setCube(Cube cube) {
+        this.cube = cube;
+        repaint(); // BUG FIX: Ensure component repaints when cube state is changed.
+    }
+
+    /**
+     * Shows face turn move the given fraction (0 to 1) of the way through,
+     * on top of the current cube; a negative move shows the cube at rest.
+     * Animated frames are always drawn solid, even in transparent mode.
+     */
+    public void setTurn(int move, double fraction) {
+        turnMove = move;
+        turnFraction = fraction;
+        repaint();
+    }
+
+    // Faces U, F and R, drawn in that order
+    private void initializeCanvas() {
+        for (int face : new int[] { Cube.UP, Cube.FRONT, Cube.RIGHT }) {
+            for (int row = 0; row < 3; row++) {
+                for (int col = 0; col < 3; col++) {
+                    // Stickers behind the front corner, left out of the transparent view
+                    boolean hideable = face == Cube.FRONT && (row == 1 && col > 0 || row == 2)
+                            || face == Cube.RIGHT && (col == 2 || row > 0 && col > 0);
+                    int facelet = face * 9 + row * 3 + col;
+                    canvas.add(TurnFrames.sticker(facelet), facelet, hideable);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (cube == null)
+            return;
+        long start = System.nanoTime();
+        Graphics2D g2d = (Graphics2D) g;
+        if (turnMove >= 0) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setStroke(OUTLINE);
+            TurnFrames.draw(g2d, cube, turnMove, turnFraction, quadX, quadY);
+        } else {
+            g2d.drawImage(canvas.render(cube, g2d), 0, 0, canvas.getWidth(), canvas.getHeight(), null);
+        }
+        Metrics.stop(Metrics.Stage.RENDER, start);
+    }
+}
+
+/**
+ * Animated playback of a solution. The moves are stepped through on a
+ * private copy of the cube while a CubePanel shows each turn in progress;
+ * a single Swing timer schedules the frames and runs only while playing.
+ * The frame loop allocates nothing: turns come from precomputed geometry.
+ */
+final class Playback {
+    static final int FRAME_MILLIS = 1000 / 60;
+
+    private final CubePanel cubePanel;
+    private final Runnable onChange;
+    private final Timer timer = new Timer(FRAME_MILLIS, e -> tick());
+    private final Cube start = new Cube();
+    private final Cube shown = new Cube();
+    private MoveSequence moves = MoveSequence.EMPTY;
+    // shown is start after the first position moves; fraction is how far
+    // the next one has turned
+    private int position;
+    private double fraction;
+    private double movesPerSecond = 2;
+    private long lastTick;
+
+    /** onChange runs on the event thread whenever the position or play state changes. */
+    Playback(CubePanel cubePanel, Runnable onChange) {
+        this.cubePanel = cubePanel;
+        this.onChange = onChange;
+    }
+
+    /** Loads moves to be played from startState, positioned at the beginning. */
+    void load(Cube startState, MoveSequence moves) {
+        timer.stop();
+        start.copyFrom(startState);
+        this.moves = moves;
+        seek(0);
+    }
+
+    /** Drops the loaded moves; the panels go back to showing the live cube. */
+    void clear() {
+        load(start, MoveSequence.EMPTY);
+    }
+
+    void play() {
+        if (position == moves.length())
+            seek(0);
+        if (moves.length() == 0)
+            return;
+        lastTick = System.nanoTime();
+        timer.start();
+        onChange.run();
+    }
+
+    void pause() {
+        timer.stop();
+        onChange.run();
+    }
+
+    /** Jumps to the state after the first index moves. */
+    void seek(int index) {
+        index = Math.max(0, Math.min(index, moves.length()));
+        shown.copyFrom(start);
+        for (int i = 0; i < index; i++) {
+            shown.move(moves.get(i));
+        }
+        position = index;
+        fraction = 0;
+        lastTick = System.nanoTime();
+        cubePanel.setTurn(-1, 0);
+        onChange.run();
+    }
+
+    void setSpeed(double movesPerSecond) {
+        this.movesPerSecond = movesPerSecond;
+    }
+
+    // Advances by the time actually elapsed, so a late frame catches up
+    // instead of slowing the playback down
+    private void tick() {
+        long now = System.nanoTime();
+        fraction += (now - lastTick) / 1e9 * movesPerSecond;
+        lastTick = now;
+        boolean moved = false;
+        while (fraction >= 1 && position < moves.length()) {
+            shown.move(moves.get(position++));
+            fraction -= 1;
+            moved = true;
+        }
+        if (position == moves.length()) {
+            fraction = 0;
+            timer.stop();
+            cubePanel.setTurn(-1, 0);
+            onChange.run();
+            return;
+        }
+        cubePanel.setTurn(moves.get(position), fraction);
+        if (moved)
+            onChange.run();
+    }
+
+    boolean isLoaded() {
+        return moves.length() > 0;
+    }
+
+    boolean isPlaying() {
+        return timer.isRunning();
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    int length() {
+        return moves.length();
+    }
+
+    /** The move played next from the current position, or -1 at the end. */
+    int nextMove() {
+        return position < moves.length() ? moves.get(position) : -1;
+    }
+
+    /** The cube as of the current position, for the panels to show. */
+    Cube getCube() {
+        return shown;
+    }
+}
+
+/**
+ * Bar chart of simulation solution lengths, one bar per move count from
+ * the shortest to the longest seen, scaled to the most frequent one.
+ */
+class LengthHistogram extends JComponent {
+    private static final int BAR_AREA = 60, LABEL_HEIGHT = 14;
+
+    private StreamingStats stats;
+
+    LengthHistogram() {
+        setPreferredSize(new Dimension(300, BAR_AREA + LABEL_HEIGHT + 4));
+    }
+
+    // Replaces the data, typically by a fresh snapshot; null clears the chart
+    void setStats(StreamingStats stats) {
+        this.stats = stats;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (stats == null || stats.count() == 0)
+            return;
+        long first = stats.min(), last = stats.max();
+        long peak = 1;
+        for (long v = first; v <= last; v++)
+            peak = Math.max(peak, stats.frequency(v));
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        FontMetrics fm = g2d.getFontMetrics();
+        int bars = (int) (last - first + 1);
+        int slot = Math.max(1, getWidth() / bars);
+        int base = 2 + BAR_AREA;
+        for (int i = 0; i < bars; i++) {
+            long count = stats.frequency(first + i);
+            int height = (int) Math.round((double) BAR_AREA * count / peak);
+            int x = i * slot;
+            g2d.setColor(getForeground());
+            g2d.fillRect(x + 1, base - height, Math.max(1, slot - 2), height);
+            String label = String.valueOf(first + i);
+            if (fm.stringWidth(label) < slot)
+                g2d.drawString(label, x + (slot - fm.stringWidth(label)) / 2, base + fm.getAscent());
+        }
+    }
+}
+
+/**
+ * NEW: A panel to draw the 2D "unfolded" view of the cube.
+ */
+class UnfoldedCubePanel extends JPanel {
+    private Cube cube;
+    private final int STICKER_SIZE = 20;
+    private final int GAP = 3;
+
+    private final StickerCanvas canvas = new StickerCanvas(new BasicStroke(1));
+
+    public UnfoldedCubePanel(Cube cube) {
+        this.cube = cube;
+        int faceSize = 3 * STICKER_SIZE + 2 * GAP;
+        // FIX: Adjusted width to accommodate all 4 side-by-side faces
+        int width = 4 * faceSize + 3 * GAP;
+        int height = 3 * faceSize + 2 * GAP;
+        setPreferredSize(new Dimension(width, height));
+        setOpaque(false);
+
+        // Draw faces in a cross pattern:
+        // U
+        // L F R B
+        // D
+        int stride = 3 * STICKER_SIZE + 3 * GAP;
+        addFace(Cube.UP, stride, 0);
+        addFace(Cube.LEFT, 0, stride);
+        addFace(Cube.FRONT, stride, stride);
+        addFace(Cube.RIGHT, 2 * stride, stride);
+        addFace(Cube.BACK, 3 * stride, stride);
+        addFace(Cube.DOWN, stride, 2 * stride);
+    }
+
+    public void setCube(Cube cube) {
+        this.cube = cube;
+        repaint(); // BUG FIX: Ensure component repaints when cube state is changed.
+    }
+
+    private void addFace(int face, int xOffset, int yOffset) {
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                int x = xOffset + col * (STICKER_SIZE + GAP);
+                int y = yOffset + row * (STICKER_SIZE + GAP);
+                canvas.add(new Rectangle(x, y, STICKER_SIZE, STICKER_SIZE), face * 9 + row * 3 + col, false);
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (cube == null)
+            return;
+
+        long start = System.nanoTime();
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.drawImage(canvas.render(cube, g2d), 0, 0, canvas.getWidth(), canvas.getHeight(), null);
+        Metrics.stop(Metrics.Stage.RENDER, start);
+    }
+}
+
+
+
+
+
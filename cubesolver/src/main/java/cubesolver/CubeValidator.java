@@ -0,0 +1,139 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.Arrays;
+
+/**
+ * Reads a cube's pieces straight into the two-phase cubie layout (see
+ * {@link TwoPhaseSearch#CUBIES}) and checks that they form a solvable
+ * state, so no facelet string is built and no search time is spent on a
+ * bad cube. A single pass over the pieces, read relative to the centers
+ * like {@link Solver#faceletString(Cube)}, finds the first problem in the
+ * order the two-phase solver reports them and with the same error codes,
+ * so "Error n" strings mean the same whichever caught them.
+ */
+final class CubeValidator {
+
+    /** What is wrong with a cube, with the matching two-phase error code. */
+    enum Problem {
+        COLOR_COUNT(1, "a color does not appear exactly nine times"),
+        CENTERS(1, "two centers have the same color"),
+        EDGES(2, "an edge is missing or appears twice"),
+        EDGE_FLIP(3, "one edge is flipped"),
+        CORNERS(4, "a corner is missing or appears twice"),
+        CORNER_TWIST(5, "one corner is twisted"),
+        PARITY(6, "two pieces are swapped");
+
+        final int code;
+        final String message;
+
+        Problem(int code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+
+        /** The string {@link TwoPhaseSearch} returns for this problem. */
+        String error() {
+            return "Error " + code;
+        }
+    }
+
+    // Facelet indices in Kociemba's facelet string (U1..U9, R1.., F1.., D1.., L1.., B1..)
+    // of each corner and edge position, U/D (else F/B) sticker first
+    private static final int[][] CORNER_FACELETS = { { 8, 9, 20 }, { 6, 18, 38 }, { 0, 36, 47 }, { 2, 45, 11 },
+            { 29, 26, 15 }, { 27, 44, 24 }, { 33, 53, 42 }, { 35, 17, 51 } };
+    private static final int[][] EDGE_FACELETS = { { 5, 10 }, { 7, 19 }, { 3, 37 }, { 1, 46 }, { 32, 16 },
+            { 28, 25 }, { 30, 43 }, { 34, 52 }, { 23, 12 }, { 21, 41 }, { 50, 39 }, { 48, 14 } };
+    // The same stickers in Cube's layout
+    private static final int[][] CORNERS = new int[8][3], EDGES = new int[12][2];
+    // Piece number * 3 + twist by the faces of its stickers, face * 36 +
+    // face * 6 + face; edges piece * 2 + flip by face * 6 + face; -1 for none
+    private static final byte[] CORNER_AT = new byte[216], EDGE_AT = new byte[36];
+
+    static {
+        int[] faces = { Cube.UP, Cube.RIGHT, Cube.FRONT, Cube.DOWN, Cube.LEFT, Cube.BACK };
+        Arrays.fill(CORNER_AT, (byte) -1);
+        Arrays.fill(EDGE_AT, (byte) -1);
+        for (int j = 0; j < 8; j++) {
+            int[] home = new int[3];
+            for (int k = 0; k < 3; k++) {
+                int at = CORNER_FACELETS[j][k];
+                CORNERS[j][k] = faces[at / 9] * 9 + at % 9;
+                home[k] = faces[at / 9];
+            }
+            for (int twist = 0; twist < 3; twist++)
+                CORNER_AT[home[(3 - twist) % 3] * 36 + home[(4 - twist) % 3] * 6 + home[(5 - twist) % 3]] =
+                        (byte) (j * 3 + twist);
+        }
+        for (int j = 0; j < 12; j++) {
+            int a = EDGE_FACELETS[j][0], b = EDGE_FACELETS[j][1];
+            EDGES[j][0] = faces[a / 9] * 9 + a % 9;
+            EDGES[j][1] = faces[b / 9] * 9 + b % 9;
+            EDGE_AT[faces[a / 9] * 6 + faces[b / 9]] = (byte) (j * 2);
+            EDGE_AT[faces[b / 9] * 6 + faces[a / 9]] = (byte) (j * 2 + 1);
+        }
+    }
+
+    private CubeValidator() {
+    }
+
+    /** The first problem found with cube, or null if it can be solved. */
+    static Problem check(Cube cube) {
+        return toCubies(cube, new byte[TwoPhaseSearch.CUBIES]);
+    }
+
+    /**
+     * Writes the pieces of cube to cubies in the {@link TwoPhaseSearch#CUBIES}
+     * layout and returns the first problem found, or null if cube can be
+     * solved. cubies holds nothing useful after a problem.
+     */
+    static Problem toCubies(Cube cube, byte[] cubies) {
+        int[] count = new int[6];
+        for (int i = 0; i < 54; i++)
+            count[cube.getFacelet(i)]++;
+        for (int c : count)
+            if (c != 9)
+                return Problem.COLOR_COUNT;
+        int centers = 0;
+        for (int f = 0; f < 6; f++)
+            centers |= 1 << cube.getFacelet(f * 9 + 4);
+        if (centers != 0x3f)
+            return Problem.CENTERS;
+        int[] home = new int[6];
+        cube.getHomeFaces(home);
+
+        // Permutation parity counts, for each piece, the earlier ones numbered above it
+        int seen = 0, flips = 0, inversions = 0;
+        for (int i = 0; i < 12; i++) {
+            int[] at = EDGES[i];
+            int found = EDGE_AT[home[cube.getFacelet(at[0])] * 6 + home[cube.getFacelet(at[1])]];
+            if (found < 0 || (seen & 1 << found / 2) != 0)
+                return Problem.EDGES;
+            inversions += Integer.bitCount(seen >>> found / 2);
+            seen |= 1 << found / 2;
+            flips += found % 2;
+            cubies[TwoPhaseSearch.EDGE_PERM + i] = (byte) (found / 2);
+            cubies[TwoPhaseSearch.EDGE_FLIP + i] = (byte) (found % 2);
+        }
+        if (flips % 2 != 0)
+            return Problem.EDGE_FLIP;
+        seen = 0;
+        int twists = 0;
+        for (int i = 0; i < 8; i++) {
+            int[] at = CORNERS[i];
+            int found = CORNER_AT[home[cube.getFacelet(at[0])] * 36 + home[cube.getFacelet(at[1])] * 6
+                    + home[cube.getFacelet(at[2])]];
+            if (found < 0 || (seen & 1 << found / 3) != 0)
+                return Problem.CORNERS;
+            inversions += Integer.bitCount(seen >>> found / 3);
+            seen |= 1 << found / 3;
+            twists += found % 3;
+            cubies[i] = (byte) (found / 3);
+            cubies[TwoPhaseSearch.CORNER_TWIST + i] = (byte) (found % 3);
+        }
+        if (twists % 3 != 0)
+            return Problem.CORNER_TWIST;
+        return inversions % 2 != 0 ? Problem.PARITY : null;
+    }
+}
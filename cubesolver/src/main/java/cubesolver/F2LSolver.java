@@ -0,0 +1,294 @@
+package cubesolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * F2L engine for the four slots between the U-face cross and the D face.
+ *
+ * A slot's case is where its two pieces are: the U-colored sticker of its
+ * corner (one of 24 corner stickers) and the sticker of its edge that
+ * belongs on the slot's first side (one of 24 edge stickers), 576 cases in
+ * all. Insertions are built from D turns and the triggers X^a D^k X^-a,
+ * which leave the cross in place. For every slot and every set of slots
+ * already solved, Dijkstra over the 576 cases, using only the triggers that
+ * also leave those slots intact, gives the shortest insertion of each case.
+ * {@link #solve(Cube)} follows those tables for every slot order and keeps
+ * the cheapest.
+ */
+final class F2LSolver {
+    // FL, FR, BL, BR, as in isSlotSolved; each is (first side, second side)
+    private static final int[][] SLOTS = {
+            { Cube.FRONT, Cube.LEFT }, { Cube.FRONT, Cube.RIGHT }, { Cube.BACK, Cube.LEFT }, { Cube.BACK, Cube.RIGHT } };
+    private static final int CASES = 24 * 24;
+    private static final short UNREACHABLE = Short.MAX_VALUE;
+    // Per unsolved slot, so orders that leave a slot unsolved always lose
+    private static final int UNSOLVED_PENALTY = 1000;
+
+    private static final int[] CORNER_FACELETS = new int[24];
+    private static final int[] EDGE_FACELETS = new int[24];
+    private static final int[] CORNER_INDEX = new int[54];
+    private static final int[] EDGE_INDEX = new int[54];
+    private static final int[][] CORNER_OTHERS = new int[24][2]; // the corner's other two stickers
+    private static final int[] EDGE_PARTNER = new int[24];
+    private static final int[] GOAL = new int[4];
+
+    private static final MoveSequence[] TRIGGERS;
+    private static final byte[][] CORNER_MOVES; // [trigger][sticker] -> sticker after the trigger
+    private static final byte[][] EDGE_MOVES;
+    private static final short[][][] DISTANCE = new short[4][16][]; // [slot][solved slots][case]
+    private static final byte[][][] NEXT = new byte[4][16][];        // first trigger of the insertion
+    private static final int[][] ORDERS = new int[24][];
+
+    static {
+        int corners = 0, edges = 0;
+        Arrays.fill(CORNER_INDEX, -1);
+        Arrays.fill(EDGE_INDEX, -1);
+        for (int f = 0; f < 54; f++) {
+            int i = f % 9;
+            if (i == 4)
+                continue;
+            if (i % 2 == 0) {
+                CORNER_INDEX[f] = corners;
+                CORNER_FACELETS[corners++] = f;
+            } else {
+                EDGE_INDEX[f] = edges;
+                EDGE_FACELETS[edges++] = f;
+            }
+        }
+        for (int c = 0; c < 24; c++) {
+            int n = 0;
+            for (int o = 0; o < 24; o++) {
+                if (o != c && Arrays.equals(Cube.cubie(CORNER_FACELETS[c]), Cube.cubie(CORNER_FACELETS[o])))
+                    CORNER_OTHERS[c][n++] = o;
+            }
+        }
+        for (int e = 0; e < 24; e++) {
+            for (int o = 0; o < 24; o++) {
+                if (o != e && Arrays.equals(Cube.cubie(EDGE_FACELETS[e]), Cube.cubie(EDGE_FACELETS[o])))
+                    EDGE_PARTNER[e] = o;
+            }
+        }
+
+        // Facelets that must stay put: the cross, and each slot's five stickers
+        int[] cross = new int[8];
+        for (int i = 1; i < 9; i += 2) {
+            int e = EDGE_INDEX[Cube.UP * 9 + i];
+            cross[i - 1] = EDGE_FACELETS[e];
+            cross[i] = EDGE_FACELETS[EDGE_PARTNER[e]];
+        }
+        int[][] slotFacelets = new int[4][];
+        for (int s = 0; s < 4; s++) {
+            int corner = CORNER_INDEX[facelet(Cube.UP, Cube.UP, SLOTS[s][0], SLOTS[s][1])];
+            int edge = EDGE_INDEX[facelet(SLOTS[s][0], SLOTS[s][0], SLOTS[s][1])];
+            GOAL[s] = corner * 24 + edge;
+            slotFacelets[s] = new int[] { CORNER_FACELETS[corner], CORNER_FACELETS[CORNER_OTHERS[corner][0]],
+                    CORNER_FACELETS[CORNER_OTHERS[corner][1]], EDGE_FACELETS[edge], EDGE_FACELETS[EDGE_PARTNER[edge]] };
+        }
+
+        // D turns, then X^a D^k X^-a for each side face X; keep those that fix the cross
+        List<byte[]> candidates = new ArrayList<>();
+        for (int k = 0; k < 3; k++)
+            candidates.add(new byte[] { (byte) (3 * Cube.DOWN + k) });
+        for (int x : new int[] { Cube.FRONT, Cube.RIGHT, Cube.LEFT, Cube.BACK })
+            for (int a = 0; a < 3; a++)
+                for (int k = 0; k < 3; k++)
+                    candidates.add(new byte[] { (byte) (3 * x + a), (byte) (3 * Cube.DOWN + k), (byte) (3 * x + 2 - a) });
+        List<MoveSequence> triggers = new ArrayList<>();
+        List<Integer> keeps = new ArrayList<>();
+        for (byte[] codes : candidates) {
+            MoveSequence seq = MoveSequence.of(codes);
+            byte[] perm = seq.permutation();
+            if (!fixes(perm, cross))
+                continue;
+            int keep = 0;
+            for (int s = 0; s < 4; s++)
+                if (fixes(perm, slotFacelets[s]))
+                    keep |= 1 << s;
+            triggers.add(seq);
+            keeps.add(keep);
+        }
+        TRIGGERS = triggers.toArray(new MoveSequence[0]);
+        CORNER_MOVES = new byte[TRIGGERS.length][24];
+        EDGE_MOVES = new byte[TRIGGERS.length][24];
+        byte[][] cornerUndo = new byte[TRIGGERS.length][24];
+        byte[][] edgeUndo = new byte[TRIGGERS.length][24];
+        for (int t = 0; t < TRIGGERS.length; t++) {
+            byte[] perm = TRIGGERS[t].permutation();
+            for (int f = 0; f < 54; f++) {
+                if (CORNER_INDEX[f] >= 0) {
+                    CORNER_MOVES[t][CORNER_INDEX[perm[f]]] = (byte) CORNER_INDEX[f];
+                    cornerUndo[t][CORNER_INDEX[f]] = (byte) CORNER_INDEX[perm[f]];
+                } else if (EDGE_INDEX[f] >= 0) {
+                    EDGE_MOVES[t][EDGE_INDEX[perm[f]]] = (byte) EDGE_INDEX[f];
+                    edgeUndo[t][EDGE_INDEX[f]] = (byte) EDGE_INDEX[perm[f]];
+                }
+            }
+        }
+
+        // Dijkstra backwards from the solved case, one table per slot and set of solved slots
+        for (int s = 0; s < 4; s++) {
+            for (int solved = 0; solved < 16; solved++) {
+                if ((solved & (1 << s)) != 0)
+                    continue;
+                short[] dist = new short[CASES];
+                byte[] next = new byte[CASES];
+                boolean[] done = new boolean[CASES];
+                Arrays.fill(dist, UNREACHABLE);
+                Arrays.fill(next, (byte) -1);
+                dist[GOAL[s]] = 0;
+                while (true) {
+                    int u = -1;
+                    for (int c = 0; c < CASES; c++)
+                        if (!done[c] && dist[c] != UNREACHABLE && (u < 0 || dist[c] < dist[u]))
+                            u = c;
+                    if (u < 0)
+                        break;
+                    done[u] = true;
+                    for (int t = 0; t < TRIGGERS.length; t++) {
+                        if ((keeps.get(t) & solved) != solved)
+                            continue;
+                        int v = cornerUndo[t][u / 24] * 24 + edgeUndo[t][u % 24];
+                        int d = dist[u] + TRIGGERS[t].length();
+                        if (d < dist[v]) {
+                            dist[v] = (short) d;
+                            next[v] = (byte) t;
+                        }
+                    }
+                }
+                DISTANCE[s][solved] = dist;
+                NEXT[s][solved] = next;
+            }
+        }
+
+        int n = 0;
+        for (int a = 0; a < 4; a++)
+            for (int b = 0; b < 4; b++)
+                for (int c = 0; c < 4; c++)
+                    if (a != b && a != c && b != c)
+                        ORDERS[n++] = new int[] { a, b, c, 6 - a - b - c };
+    }
+
+    private F2LSolver() {
+    }
+
+    private static boolean fixes(byte[] perm, int[] facelets) {
+        for (int f : facelets)
+            if (perm[f] != f)
+                return false;
+        return true;
+    }
+
+    // The facelet on face that belongs to the piece touching all the given faces
+    private static int facelet(int face, int... faces) {
+        int[] cubie = new int[3];
+        for (int g : faces)
+            for (int i = 0; i < 3; i++)
+                cubie[i] += 2 * Cube.FACE_NORMALS[g][i];
+        for (int f = face * 9; f < face * 9 + 9; f++)
+            if (Arrays.equals(Cube.cubie(f), cubie))
+                return f;
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Fills cases[slot] with the current case of each slot, or -1 where the
+     * slot's pieces cannot be identified. One pass over the 48 corner and
+     * edge stickers, comparing colors with the centers.
+     */
+    static void locate(Cube cube, int[] cases) {
+        int up = cube.getFacelet(Cube.UP * 9 + 4);
+        int[] corner = { -1, -1, -1, -1 }, edge = { -1, -1, -1, -1 };
+        for (int c = 0; c < 24; c++) {
+            if (cube.getFacelet(CORNER_FACELETS[c]) != up)
+                continue;
+            int x = cube.getFacelet(CORNER_FACELETS[CORNER_OTHERS[c][0]]);
+            int y = cube.getFacelet(CORNER_FACELETS[CORNER_OTHERS[c][1]]);
+            for (int s = 0; s < 4; s++) {
+                int a = cube.getFacelet(SLOTS[s][0] * 9 + 4), b = cube.getFacelet(SLOTS[s][1] * 9 + 4);
+                if ((x == a && y == b) || (x == b && y == a))
+                    corner[s] = c;
+            }
+        }
+        for (int e = 0; e < 24; e++) {
+            int x = cube.getFacelet(EDGE_FACELETS[e]);
+            int y = cube.getFacelet(EDGE_FACELETS[EDGE_PARTNER[e]]);
+            for (int s = 0; s < 4; s++) {
+                if (x == cube.getFacelet(SLOTS[s][0] * 9 + 4) && y == cube.getFacelet(SLOTS[s][1] * 9 + 4))
+                    edge[s] = e;
+            }
+        }
+        for (int s = 0; s < 4; s++)
+            cases[s] = corner[s] < 0 || edge[s] < 0 ? -1 : corner[s] * 24 + edge[s];
+    }
+
+    /** True if slot (0-3: FL, FR, BL, BR) has its corner and edge home and oriented. */
+    static boolean isSlotSolved(Cube cube, int slot) {
+        int[] cases = new int[4];
+        locate(cube, cases);
+        return cases[slot] == GOAL[slot];
+    }
+
+    private static int solvedMask(int[] cases) {
+        int mask = 0;
+        for (int s = 0; s < 4; s++)
+            if (cases[s] == GOAL[s])
+                mask |= 1 << s;
+        return mask;
+    }
+
+    /**
+     * Shortest table insertion of all four slots over every slot order,
+     * assuming the cross is solved. Slots whose case cannot be reached by
+     * the triggers (only possible with an unsolved cross) are left alone.
+     */
+    static MoveSequence solve(Cube cube) {
+        int[] start = new int[4];
+        locate(cube, start);
+        int[] cases = new int[4];
+        byte[] path = new byte[64], bestPath = null;
+        int bestScore = Integer.MAX_VALUE, bestLength = 0;
+
+        for (int[] order : ORDERS) {
+            System.arraycopy(start, 0, cases, 0, 4);
+            int length = 0, score = 0;
+            for (int s : order) {
+                int solved = solvedMask(cases);
+                if ((solved & (1 << s)) != 0)
+                    continue;
+                if (cases[s] < 0 || DISTANCE[s][solved][cases[s]] == UNREACHABLE) {
+                    score += UNSOLVED_PENALTY;
+                    continue;
+                }
+                score += DISTANCE[s][solved][cases[s]];
+                while (cases[s] != GOAL[s]) {
+                    int t = NEXT[s][solved][cases[s]];
+                    for (int o = 0; o < 4; o++)
+                        if (cases[o] >= 0)
+                            cases[o] = CORNER_MOVES[t][cases[o] / 24] * 24 + EDGE_MOVES[t][cases[o] % 24];
+                    if (length == path.length)
+                        path = Arrays.copyOf(path, 2 * length);
+                    path[length++] = (byte) t;
+                }
+            }
+            if (score < bestScore) {
+                bestScore = score;
+                bestPath = Arrays.copyOf(path, length);
+                bestLength = length;
+            }
+        }
+
+        int total = 0;
+        for (int i = 0; i < bestLength; i++)
+            total += TRIGGERS[bestPath[i]].length();
+        byte[] codes = new byte[total];
+        int n = 0;
+        for (int i = 0; i < bestLength; i++) {
+            MoveSequence trigger = TRIGGERS[bestPath[i]];
+            for (int j = 0; j < trigger.length(); j++)
+                codes[n++] = (byte) trigger.get(j);
+        }
+        return MoveSequence.of(codes);
+    }
+}
@@ -0,0 +1,319 @@
+package cubesolver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Last-layer engine for the D face (the CFOP cross is built on U).
+ *
+ * A last-layer state is packed into an int. For OLL there is one bit per
+ * D-layer sticker (8 on D, 12 around it) showing the D color. For PLL there
+ * are two bits per side sticker: how many quarter turns it is from its own
+ * face, measured against the first one so the key ignores the closing AUF
+ * (adjust-U-face; a D turn here). A key is normalised over the four D
+ * pre-turns by keeping the smallest, and looked up in small open-addressing
+ * tables that cover all 57 OLL and 21 PLL cases.
+ *
+ * The tables are built when the class loads, from the standard algorithms
+ * written for a U last layer and carried over by a z2 conjugation. Each one
+ * is checked to keep the first two layers (and for PLL the orientation),
+ * then a breadth-first search over compositions of the checked algorithms
+ * fills in every case, so a faulty entry costs a longer solution rather
+ * than a missing case. All answers are prebuilt MoveSequences, so a lookup
+ * allocates nothing.
+ */
+final class LastLayer {
+    // Standard U-layer algorithms
+    private static final String[] OLL_ALGS = {
+            "R U2 R2 F R F' U2 R' F R F'", "F R U R' U' F' f R U R' U' f'",
+            "f R U R' U' f' U' F R U R' U' F'", "f R U R' U' f' U F R U R' U' F'",
+            "r' U2 R U R' U r", "r U2 R' U' R U' r'", "r U R' U R U2 r'", "l' U' L U' L' U2 l",
+            "R U R' U' R' F R2 U R' U' F'", "R U R' U R' F R F' R U2 R'", "r U R' U R' F R F' R U2 r'",
+            "M' R' U' R U' R' U2 R U' R r'", "F U R U' R2 F' R U R U' R'", "R' F R U R' F' R F U' F'",
+            "r' U' r R' U' R U r' U r", "r U r' R U R' U' r U' r'", "F R' F' R2 r' U R U' R' U' M'",
+            "r U R' U R U2 r2 U' R U' R' U2 r", "r' R U R U R' U' M' R' F R F'",
+            "r U R' U' M2 U R U' R' U' M'", "R U2 R' U' R U R' U' R U' R'", "R U2 R2 U' R2 U' R2 U2 R",
+            "R2 D' R U2 R' D R U2 R", "r U R' U' r' F R F'", "F' r U R' U' r' F R", "R U2 R' U' R U' R'",
+            "R U R' U R U2 R'", "r U R' U' r' R U R U' R'", "R U R' U' R U' R' F' U' F R U R'",
+            "F R' F R2 U' R' U' R U R' F2", "R' U' F U R U' R' F' R", "L U F' U' L' U L F L'",
+            "R U R' U' R' F R F'", "R U R2 U' R' F R U R U' F'", "R U2 R2 F R F' R U2 R'",
+            "L' U' L U' L' U L U L F' L' F", "F R' F' R U R U' R'", "R U R' U R U' R' U' R' F R F'",
+            "L F' L' U' L U F U' L'", "R' F R U R' U' F' U R", "R U R' U R U2 R' F R U R' U' F'",
+            "R' U' R U' R' U2 R F R U R' U' F'", "F' U' L' U L F", "F U R U' R' F'", "F R U R' U' F'",
+            "R' U' R' F R F' U R", "R' U' R' F R F' R' F R F' U R", "F R U R' U' R U R' U' F'",
+            "r U' r2 U r2 U r2 U' r", "r' U r2 U' r2 U' r2 U r'", "F U R U' R' U R U' R' F'",
+            "R U R' U R U' B U' B' R'", "l' U2 L U L' U' L U L' U l", "r U2 R' U' R U R' U' R U' r'",
+            "R' F R U R U' R2 F' R2 U' R' U R U R'", "r' U' r U' R' U R U' R' U R r' U r",
+            "R U R' U' M' U R U' r'" };
+    private static final String[] PLL_ALGS = {
+            "x R' U R' D2 R U' R' D2 R2 x'", "x R2 D2 R U R' D2 R U' R x'",
+            "x' R U' R' D R U R' D' R U R' D R U' R' D' x", "R' U' F' R U R' U' R' F R2 U' R' U' R U R' U R",
+            "R2 U R' U R' U' R U' R2 U' D R' U R D'", "R' U' R U D' R2 U R' U R U' R U' R2 D",
+            "R2 U' R U' R U R' U R2 U D' R U' R' D", "R U R' U' D R2 U' R U' R' U R' U R2 D'",
+            "M2 U M2 U2 M2 U M2", "x R2 F R F' R U2 r' U r U2 x'", "R U R' F' R U R' U' R' F R2 U' R'",
+            "R U R' U R U R' F' R U R' U' R' F R2 U' R' U2 R U' R'",
+            "R' U R U' R' F' U' F R U R' F R' F' R U' R", "R U' R' U' R U R D R' U' R D' R' U2 R'",
+            "R2 F R U R U' R' F' R U2 R' U2 R", "R U R' U' R' F R2 U' R' U' R U R' F'", "M2 U M U2 M' U M2",
+            "M2 U' M U2 M' U' M2", "R' U R' U' y R' F' R2 U' R' U R' F R F y'",
+            "F R U' R' U' R U R' F' R U R' U' R' F R F'", "M' U M2 U M2 U M' U2 M2" };
+
+    private static final int[] LL = new int[20];       // the 8 D-face stickers, then the 12 side stickers
+    private static final int[][] TURNED = new int[4][20]; // [k][i]: LL index whose sticker reaches LL[i] after D^k
+    private static final int[] SIDE_POS = new int[6];   // a side face's place in D-turn order, -1 for U and D
+    private static final int[] LL_FACE = new int[20];
+    private static final byte[][] D_TURNS = { {}, { 3 * Cube.DOWN }, { 3 * Cube.DOWN + 1 }, { 3 * Cube.DOWN + 2 } };
+
+    private static final int[] OLL_KEYS, PLL_KEYS;
+    private static final MoveSequence[][] OLL_SOLUTIONS;   // [entry][pre-turn]
+    private static final MoveSequence[][][] PLL_SOLUTIONS; // [entry][pre-turn][post-turn]
+    private static final int ORIENTED;
+
+    static {
+        int n = 0;
+        for (int i = 0; i < 9; i++)
+            if (i != 4)
+                LL[n++] = Cube.DOWN * 9 + i;
+        for (int f = 0; f < 54; f++)
+            if (f / 9 != Cube.UP && f / 9 != Cube.DOWN && Cube.position(f)[1] == -2)
+                LL[n++] = f;
+        for (int i = 0; i < 20; i++)
+            LL_FACE[i] = LL[i] / 9;
+
+        // Follow a D turn around the sides to number them
+        byte[] d = Cube.permutation(3 * Cube.DOWN);
+        Arrays.fill(SIDE_POS, -1);
+        int side = Cube.FRONT;
+        for (int p = 0; p < 4; p++) {
+            SIDE_POS[side] = p;
+            for (int i = 8; i < 20; i++)
+                if (d[LL[i]] / 9 == side) {
+                    side = LL[i] / 9;
+                    break;
+                }
+        }
+        for (int k = 0; k < 4; k++) {
+            byte[] perm = MoveSequence.of(D_TURNS[k]).permutation();
+            for (int i = 0; i < 20; i++)
+                TURNED[k][i] = indexOf(perm[LL[i]]);
+        }
+
+        List<int[]> ollKeys = new ArrayList<>(), pllKeys = new ArrayList<>();
+        List<MoveSequence> ollSeqs = new ArrayList<>(), pllSeqs = new ArrayList<>();
+        build(OLL_ALGS, false, ollKeys, ollSeqs);
+        build(PLL_ALGS, true, pllKeys, pllSeqs);
+
+        OLL_KEYS = table(ollKeys);
+        OLL_SOLUTIONS = new MoveSequence[ollSeqs.size()][4];
+        for (int e = 0; e < ollSeqs.size(); e++)
+            for (int k = 0; k < 4; k++)
+                OLL_SOLUTIONS[e][k] = join(D_TURNS[k], ollSeqs.get(e), new byte[0]);
+        PLL_KEYS = table(pllKeys);
+        PLL_SOLUTIONS = new MoveSequence[pllSeqs.size()][4][4];
+        for (int e = 0; e < pllSeqs.size(); e++)
+            for (int k = 0; k < 4; k++)
+                for (int j = 0; j < 4; j++)
+                    PLL_SOLUTIONS[e][k][j] = join(D_TURNS[k], pllSeqs.get(e), D_TURNS[j]);
+        ORIENTED = canonicalOll(new Cube()) >>> 2;
+    }
+
+    private LastLayer() {
+    }
+
+    private static int indexOf(int facelet) {
+        for (int i = 0; i < 20; i++)
+            if (LL[i] == facelet)
+                return i;
+        throw new IllegalStateException();
+    }
+
+    // ---- Keys ----
+
+    /** Smallest OLL key over the four pre-turns, shifted left 2, plus the pre-turn that gives it. */
+    static int canonicalOll(Cube cube) {
+        int color = cube.getFacelet(Cube.DOWN * 9 + 4);
+        int best = Integer.MAX_VALUE;
+        for (int k = 0; k < 4; k++) {
+            int[] from = TURNED[k];
+            int key = 0;
+            for (int i = 0; i < 20; i++)
+                if (cube.getFacelet(LL[from[i]]) == color)
+                    key |= 1 << i;
+            best = Math.min(best, key << 2 | k);
+        }
+        return best;
+    }
+
+    /** As canonicalOll, for PLL; -1 if the last layer is not oriented. */
+    static int canonicalPll(Cube cube) {
+        int best = Integer.MAX_VALUE;
+        for (int k = 0; k < 4; k++) {
+            int[] from = TURNED[k];
+            int key = 0, first = 0;
+            for (int i = 8; i < 20; i++) {
+                int offset = offset(cube, cube.getFacelet(LL[from[i]]), LL_FACE[i]);
+                if (offset < 0)
+                    return -1;
+                if (i == 8)
+                    first = offset;
+                key |= ((offset - first) & 3) << (2 * (i - 8));
+            }
+            best = Math.min(best, key << 2 | k);
+        }
+        return best;
+    }
+
+    // Quarter D turns that take a sticker of this color from face to the side whose center matches it
+    private static int offset(Cube cube, int color, int face) {
+        for (int f = 0; f < 6; f++)
+            if (SIDE_POS[f] >= 0 && cube.getFacelet(f * 9 + 4) == color)
+                return (SIDE_POS[f] - SIDE_POS[face]) & 3;
+        return -1;
+    }
+
+    // ---- Lookup ----
+
+    private static int[] table(List<int[]> entries) {
+        int size = Integer.highestOneBit(entries.size() * 4 - 1) << 1;
+        int[] table = new int[2 * size];
+        Arrays.fill(table, -1);
+        for (int[] entry : entries) {
+            int slot = slot(table, entry[0]);
+            table[2 * slot] = entry[0];
+            table[2 * slot + 1] = entry[1];
+        }
+        return table;
+    }
+
+    // Linear probing over (key, entry) pairs; the slot holding key, or the empty one where it would go
+    private static int slot(int[] table, int key) {
+        int mask = table.length / 2 - 1;
+        int slot = (key * 0x9E3779B1 >>> 16) & mask;
+        while (table[2 * slot] != -1 && table[2 * slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private static int find(int[] table, int key) {
+        return table[2 * slot(table, key) + 1];
+    }
+
+    static boolean isOriented(Cube cube) {
+        return canonicalOll(cube) >>> 2 == ORIENTED;
+    }
+
+    /**
+     * Pre-turn and algorithm that orient the last layer; EMPTY if it is
+     * already oriented, null if the case is not recognised (the first two
+     * layers are not solved).
+     */
+    static MoveSequence oll(Cube cube) {
+        int packed = canonicalOll(cube);
+        if (packed >>> 2 == ORIENTED)
+            return MoveSequence.EMPTY;
+        int e = find(OLL_KEYS, packed >>> 2);
+        return e < 0 ? null : OLL_SOLUTIONS[e][packed & 3];
+    }
+
+    /**
+     * Pre-turn, algorithm and final AUF that solve an oriented last layer;
+     * null if it is not oriented or the case is not recognised.
+     */
+    static MoveSequence pll(Cube cube) {
+        int packed = canonicalPll(cube);
+        if (packed < 0)
+            return null;
+        int e = find(PLL_KEYS, packed >>> 2);
+        if (e < 0)
+            return null;
+        MoveSequence[] byPostTurn = PLL_SOLUTIONS[e][packed & 3];
+        // The post-turn is whatever the first side sticker still lacks afterwards
+        byte[] perm = byPostTurn[0].permutation();
+        return byPostTurn[offset(cube, cube.getFacelet(perm[LL[8]]), LL_FACE[8])];
+    }
+
+    // ---- Table construction ----
+
+    private static void build(String[] algs, boolean pll, List<int[]> keys, List<MoveSequence> solutions) {
+        List<MoveSequence> checked = new ArrayList<>();
+        for (String alg : algs) {
+            MoveSequence seq = MoveSequence.parse("z2 " + alg + " z2").withoutRotations();
+            if (seq != null && keepsFirstTwoLayers(seq, pll))
+                checked.add(seq);
+        }
+
+        // Breadth first from the solved layer: a state X = a^-1 D^k T is solved by a, D^-k, then T's solution
+        Set<Integer> seen = new HashSet<>();
+        ArrayDeque<Cube> states = new ArrayDeque<>();
+        ArrayDeque<byte[]> paths = new ArrayDeque<>();
+        Cube solved = new Cube();
+        int start = pll ? canonicalPll(solved) : canonicalOll(solved);
+        seen.add(start >>> 2);
+        keys.add(new int[] { start >>> 2, solutions.size() });
+        solutions.add(MoveSequence.EMPTY);
+        states.add(solved);
+        paths.add(new byte[0]);
+        while (!states.isEmpty()) {
+            Cube t = states.poll();
+            byte[] path = paths.poll();
+            for (MoveSequence alg : checked) {
+                for (int k = 0; k < 4; k++) {
+                    Cube x = new Cube(t);
+                    MoveSequence.of(D_TURNS[k]).applyTo(x);
+                    alg.inverse().applyTo(x);
+                    int packed = pll ? canonicalPll(x) : canonicalOll(x);
+                    if (!seen.add(packed >>> 2))
+                        continue;
+                    byte[] xPath = codes(join(codes(alg), MoveSequence.of(D_TURNS[(4 - k) & 3]), path));
+                    // Stored from the canonical state, which is D^k0 X
+                    keys.add(new int[] { packed >>> 2, solutions.size() });
+                    solutions.add(join(D_TURNS[(4 - (packed & 3)) & 3], MoveSequence.of(xPath), new byte[0]));
+                    states.add(x);
+                    paths.add(xPath);
+                }
+            }
+        }
+    }
+
+    private static boolean keepsFirstTwoLayers(MoveSequence seq, boolean keepOrientation) {
+        byte[] perm = seq.permutation();
+        for (int f = 0; f < 54; f++) {
+            boolean lastLayer = f / 9 == Cube.DOWN || (f / 9 != Cube.UP && Cube.position(f)[1] == -2);
+            if (!lastLayer && f % 9 != 4 && perm[f] != f)
+                return false;
+            if (keepOrientation && f / 9 == Cube.DOWN && perm[f] / 9 != Cube.DOWN)
+                return false;
+        }
+        return true;
+    }
+
+    private static byte[] codes(MoveSequence seq) {
+        byte[] codes = new byte[seq.length()];
+        for (int i = 0; i < codes.length; i++)
+            codes[i] = (byte) seq.get(i);
+        return codes;
+    }
+
+    // Concatenates, merging turns of the same face where the parts meet
+    private static MoveSequence join(byte[] first, MoveSequence middle, byte[] last) {
+        byte[] all = new byte[first.length + middle.length() + last.length];
+        int n = 0;
+        for (byte[] part : new byte[][] { first, codes(middle), last }) {
+            for (byte code : part) {
+                if (n > 0 && all[n - 1] / 3 == code / 3) {
+                    int turns = (all[n - 1] % 3 + 1 + code % 3 + 1) & 3;
+                    if (turns == 0)
+                        n--;
+                    else
+                        all[n - 1] = (byte) (code - code % 3 + turns - 1);
+                } else {
+                    all[n++] = code;
+                }
+            }
+        }
+        return MoveSequence.of(Arrays.copyOf(all, n));
+    }
+}
@@ -0,0 +1,242 @@
+package cubesolver;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide latency metrics for the solve and render hot paths.
+ *
+ * Each stage keeps a count, a total, a maximum and a histogram with one
+ * bucket per power of two nanoseconds, all updated without locks, so a
+ * measurement costs two nanoTime calls and a handful of adds. Percentiles
+ * come from the histogram and are exact to within a factor of two. The
+ * numbers are published over JMX as cubesolver:type=Metrics and shown in
+ * the GUI's performance panel.
+ */
+final class Metrics {
+
+    enum Stage {
+        CUBIE_CONVERSION("Cubie conversion", "CubieConversion"),
+        TABLE_WARMUP("Table warmup", "TableWarmup"),
+        PHASE1("Phase 1 search", "Phase1"),
+        PHASE2("Phase 2 search", "Phase2"),
+        MOVE_APPLICATION("Move application", "MoveApplication"),
+        SIMPLIFY("Simplify moves", "Simplify"),
+        RENDER("Rendering", "Render");
+
+        final String label;
+        final String attributePrefix;
+
+        Stage(String label, String attributePrefix) {
+            this.label = label;
+            this.attributePrefix = attributePrefix;
+        }
+    }
+
+    static final String OBJECT_NAME = "cubesolver:type=Metrics";
+
+    private static final Histogram[] STAGES = new Histogram[Stage.values().length];
+    static {
+        for (int i = 0; i < STAGES.length; i++)
+            STAGES[i] = new Histogram();
+    }
+
+    private Metrics() {
+    }
+
+    /** Records the time elapsed since start, a System.nanoTime() reading. */
+    static void stop(Stage stage, long start) {
+        STAGES[stage.ordinal()].record(System.nanoTime() - start);
+    }
+
+    static void record(Stage stage, long nanos) {
+        STAGES[stage.ordinal()].record(nanos);
+    }
+
+    static Histogram get(Stage stage) {
+        return STAGES[stage.ordinal()];
+    }
+
+    static void reset() {
+        for (Histogram h : STAGES)
+            h.reset();
+    }
+
+    /** One line per stage, laid out for a monospaced text area. */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-19s %8s %10s %10s %10s %10s%n", "Stage", "Count", "Mean us", "p50 us", "p99 us", "Max us"));
+        for (Stage stage : Stage.values()) {
+            Histogram h = get(stage);
+            sb.append(String.format("%-19s %8d %10.1f %10.1f %10.1f %10.1f%n", stage.label, h.count(),
+                    h.meanMicros(), h.percentileMicros(0.50), h.percentileMicros(0.99), h.maxMicros()));
+        }
+        SolutionCache cache = SolutionCache.SHARED;
+        sb.append(String.format("Solution cache: %d hits, %d misses, %d entries", cache.hits(), cache.misses(), cache.size()));
+        return sb.toString();
+    }
+
+    /** Registers the MBean with the platform server; later calls do nothing. */
+    static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(new MetricsMBean(), name);
+        } catch (JMException e) {
+            System.err.println("Metrics: could not register MBean: " + e);
+        }
+    }
+
+    /** Lock-free latency histogram with power-of-two nanosecond buckets. */
+    static final class Histogram {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        void record(long nanos) {
+            if (nanos < 0)
+                nanos = 0;
+            count.increment();
+            totalNanos.add(nanos);
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos))
+                max = maxNanos.get();
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double meanMicros() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (n * 1000.0);
+        }
+
+        double maxMicros() {
+            return maxNanos.get() / 1000.0;
+        }
+
+        // Upper edge of the bucket holding the q-quantile, capped at the maximum
+        double percentileMicros(double q) {
+            long n = count.sum();
+            if (n == 0)
+                return 0;
+            long rank = (long) Math.ceil(q * n);
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    long upper = i >= 62 ? Long.MAX_VALUE : (2L << i) - 1;
+                    return Math.min(upper, maxNanos.get()) / 1000.0;
+                }
+            }
+            return maxMicros();
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            for (int i = 0; i < 64; i++)
+                buckets.set(i, 0);
+        }
+    }
+
+    /**
+     * Read-only view of every stage as flat JMX attributes, named after the
+     * stage: Phase1Count, Phase1MeanMicros, Phase1P50Micros, Phase1P99Micros
+     * and Phase1MaxMicros, and so on; plus a reset operation.
+     */
+    private static final class MetricsMBean implements DynamicMBean {
+        private final Map<String, Supplier<Object>> attributes = new LinkedHashMap<>();
+        private final MBeanInfo info;
+
+        MetricsMBean() {
+            for (Stage stage : Stage.values()) {
+                Histogram h = get(stage);
+                String p = stage.attributePrefix;
+                attributes.put(p + "Count", h::count);
+                attributes.put(p + "MeanMicros", h::meanMicros);
+                attributes.put(p + "P50Micros", () -> h.percentileMicros(0.50));
+                attributes.put(p + "P99Micros", () -> h.percentileMicros(0.99));
+                attributes.put(p + "MaxMicros", h::maxMicros);
+            }
+            attributes.put("SolutionCacheHits", SolutionCache.SHARED::hits);
+            attributes.put("SolutionCacheMisses", SolutionCache.SHARED::misses);
+
+            List<MBeanAttributeInfo> infos = new ArrayList<>();
+            for (String name : attributes.keySet()) {
+                String type = name.endsWith("Micros") ? "double" : "long";
+                infos.add(new MBeanAttributeInfo(name, type, name, true, false, false));
+            }
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clears all stage statistics",
+                    new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+            info = new MBeanInfo(Metrics.class.getName(), "Cube solver hot-path latencies",
+                    infos.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] { reset }, null);
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Supplier<Object> value = attributes.get(attribute);
+            if (value == null)
+                throw new AttributeNotFoundException(attribute);
+            return value.get();
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            AttributeList list = new AttributeList();
+            for (String name : names) {
+                Supplier<Object> value = attributes.get(name);
+                if (value != null)
+                    list.add(new Attribute(name, value.get()));
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList list) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+            if (!"reset".equals(action))
+                throw new ReflectionException(new NoSuchMethodException(action));
+            reset();
+            return null;
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return info;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package cubesolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sequence of moves tokenized once into compact move codes (see
+ * {@link Cube#parseMove(String)}). The net facelet permutation of the whole
+ * sequence is composed on first use, so applying a long algorithm costs the
+ * same as a single move.
+ */
+final class MoveSequence {
+    static final MoveSequence EMPTY = new MoveSequence(new byte[0]);
+
+    // CONJUGATES[r][m]: the face turn m' such that rotation r then m equals m' then r
+    private static final byte[][] CONJUGATES = new byte[Cube.MOVE_COUNT - Cube.FACE_MOVES][Cube.FACE_MOVES];
+
+    static {
+        for (int r = Cube.FACE_MOVES; r < Cube.MOVE_COUNT; r++) {
+            byte[] rotation = Cube.permutation(r);
+            for (int m = 0; m < Cube.FACE_MOVES; m++) {
+                byte[] target = Cube.compose(rotation, Cube.permutation(m));
+                for (int c = 0; c < Cube.FACE_MOVES; c++) {
+                    if (Arrays.equals(target, Cube.compose(Cube.permutation(c), rotation))) {
+                        CONJUGATES[r - Cube.FACE_MOVES][m] = (byte) c;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // The 24 orientations a sequence can leave the cube in, as frames:
+    // FRAME_MOVES[f][m] is the face turn that m amounts to after the rotations
+    // seen so far, FRAME_NEXT[f][r] the frame after rotation FACE_MOVES + r.
+    // Frame 0 is the identity.
+    private static final byte[][] FRAME_MOVES = new byte[24][];
+    private static final byte[][] FRAME_NEXT = new byte[24][Cube.MOVE_COUNT - Cube.FACE_MOVES];
+    static final int[] OPPOSITE_FACE = { Cube.DOWN, Cube.BACK, Cube.LEFT, Cube.RIGHT, Cube.UP, Cube.FRONT };
+
+    static {
+        List<byte[]> frames = new ArrayList<>(24);
+        byte[] identity = new byte[Cube.FACE_MOVES];
+        for (int m = 0; m < identity.length; m++) {
+            identity[m] = (byte) m;
+        }
+        frames.add(identity);
+        for (int f = 0; f < frames.size(); f++) {
+            byte[] frame = frames.get(f);
+            for (int r = 0; r < FRAME_NEXT[f].length; r++) {
+                byte[] conj = CONJUGATES[r];
+                byte[] next = new byte[Cube.FACE_MOVES];
+                for (int m = 0; m < next.length; m++) {
+                    next[m] = frame[conj[m]];
+                }
+                int g = 0;
+                while (g < frames.size() && !Arrays.equals(frames.get(g), next))
+                    g++;
+                if (g == frames.size())
+                    frames.add(next);
+                FRAME_NEXT[f][r] = (byte) g;
+            }
+            FRAME_MOVES[f] = frame;
+        }
+    }
+
+    private final byte[] codes;
+    private volatile byte[] permutation;
+
+    private MoveSequence(byte[] codes) {
+        this.codes = codes;
+    }
+
+    /**
+     * Compiles an algorithm in a single pass. Besides face turns, rotations
+     * and the internal "Ri" form (also "RI", as older builds recorded
+     * scrambles) it reads slice turns (M, E, S), wide turns (Rw or r), any
+     * turn count ("R3" is "R'"), groups with repeats and inverses
+     * ("(R U R' U')3", "(R U)'") and commutators "[A, B]" and
+     * conjugates "[A: B]", nested to any depth. Spaces between moves are
+     * optional. Anything else is rejected with a {@link NotationException}
+     * giving its position; null or blank input is the empty sequence.
+     */
+    static MoveSequence parse(String moves) {
+        if (moves == null)
+            return EMPTY;
+        Compiler compiler = new Compiler(moves);
+        compiler.sequence();
+        if (compiler.pos < moves.length())
+            throw new NotationException("Unexpected '" + moves.charAt(compiler.pos) + "'", compiler.pos);
+        return compiler.n == 0 ? EMPTY : new MoveSequence(Arrays.copyOf(compiler.out, compiler.n));
+    }
+
+    /** Malformed move notation, with the offset in the input where reading failed. */
+    static final class NotationException extends IllegalArgumentException {
+        final int position;
+
+        NotationException(String message, int position) {
+            super(message + " at " + position);
+            this.position = position;
+        }
+    }
+
+    // Recursive descent over the notation, emitting move codes straight into
+    // out; repeats, inverses and commutators are copies of ranges of out
+    private static final class Compiler {
+        // Bounds the output whatever the repeat counts
+        private static final int MAX_MOVES = 1 << 20;
+
+        private final String in;
+        private int pos;
+        private byte[] out;
+        private int n;
+
+        Compiler(String in) {
+            this.in = in;
+            this.out = new byte[Math.max(16, in.length())];
+        }
+
+        // Reads items up to the end or a closing character
+        void sequence() {
+            while (true) {
+                skipSpaces();
+                if (pos == in.length() || ")],:".indexOf(in.charAt(pos)) >= 0)
+                    return;
+                item();
+            }
+        }
+
+        private void item() {
+            int at = pos, from = n;
+            char c = in.charAt(pos);
+            if (c == '(') {
+                pos++;
+                sequence();
+                expect(')', at);
+            } else if (c == '[') {
+                pos++;
+                sequence();
+                int middle = n;
+                skipSpaces();
+                if (pos == in.length() || (in.charAt(pos) != ',' && in.charAt(pos) != ':'))
+                    throw new NotationException("Expected ',' or ':' in '['", pos);
+                boolean commutator = in.charAt(pos++) == ',';
+                sequence();
+                expect(']', at);
+                int end = n;
+                // [A, B] = A B A' B', [A: B] = A B A'
+                appendInverse(from, middle);
+                if (commutator)
+                    appendInverse(middle, end);
+            } else {
+                move();
+                return;
+            }
+            int count = number(1);
+            if (pos < in.length() && isPrime(in.charAt(pos))) {
+                pos++;
+                invert(from, n);
+            }
+            repeat(from, count);
+        }
+
+        private void move() {
+            int at = pos;
+            int axis = Cube.axisOf(in.charAt(pos++));
+            if (axis < 0)
+                throw new NotationException("Unknown move '" + in.charAt(at) + "'", at);
+            if (axis < 6 && pos < in.length() && in.charAt(pos) == 'w') {
+                axis += Cube.WIDE_MOVES / 3;
+                pos++;
+            }
+            int turns = number(1);
+            if (pos < in.length() && (isPrime(in.charAt(pos)) || in.charAt(pos) == 'i' || in.charAt(pos) == 'I')) {
+                pos++;
+                turns = -turns;
+            }
+            turns = Math.floorMod(turns, 4);
+            if (turns != 0)
+                emit(3 * axis + turns - 1, at);
+        }
+
+        private static boolean isPrime(char c) {
+            return c == '\'' || c == '\u2019';
+        }
+
+        private int number(int otherwise) {
+            int start = pos;
+            long value = 0;
+            while (pos < in.length() && in.charAt(pos) >= '0' && in.charAt(pos) <= '9') {
+                value = Math.min(10L * value + (in.charAt(pos) - '0'), MAX_MOVES + 1L);
+                pos++;
+            }
+            return pos == start ? otherwise : (int) value;
+        }
+
+        private void expect(char close, int open) {
+            if (pos == in.length() || in.charAt(pos) != close)
+                throw new NotationException("Missing '" + close + "' for '" + in.charAt(open) + "' at " + open
+                        + ", found " + (pos == in.length() ? "end" : "'" + in.charAt(pos) + "'"), pos);
+            pos++;
+        }
+
+        private void skipSpaces() {
+            while (pos < in.length() && Character.isWhitespace(in.charAt(pos)))
+                pos++;
+        }
+
+        private void emit(int code, int at) {
+            ensure(1, at);
+            out[n++] = (byte) code;
+        }
+
+        private void ensure(long more, int at) {
+            if (n + more > MAX_MOVES)
+                throw new NotationException("More than " + MAX_MOVES + " moves", at);
+            if (n + more > out.length)
+                out = Arrays.copyOf(out, (int) Math.max(n + more, Math.min(2L * out.length, MAX_MOVES)));
+        }
+
+        // Reverses out[from, to) and inverts each move
+        private void invert(int from, int to) {
+            for (int i = from, j = to - 1; i <= j; i++, j--) {
+                byte a = out[i], b = out[j];
+                out[i] = inverse(b);
+                out[j] = inverse(a);
+            }
+        }
+
+        private void appendInverse(int from, int to) {
+            ensure(to - from, pos);
+            for (int i = to - 1; i >= from; i--)
+                out[n++] = inverse(out[i]);
+        }
+
+        // out[from, n) count times in all
+        private void repeat(int from, int count) {
+            int length = n - from;
+            if (count == 0) {
+                n = from;
+                return;
+            }
+            ensure((long) length * (count - 1), pos);
+            for (int k = 1; k < count; k++) {
+                System.arraycopy(out, from, out, n, length);
+                n += length;
+            }
+        }
+
+        private static byte inverse(byte code) {
+            return (byte) (code - code % 3 + 2 - code % 3);
+        }
+    }
+
+    int length() {
+        return codes.length;
+    }
+
+    int get(int index) {
+        return codes[index];
+    }
+
+    /** Net facelet permutation of the whole sequence, composed once and cached. */
+    byte[] permutation() {
+        byte[] perm = permutation;
+        if (perm == null) {
+            perm = new byte[54];
+            for (int i = 0; i < 54; i++) {
+                perm[i] = (byte) i;
+            }
+            for (byte code : codes) {
+                perm = Cube.compose(perm, Cube.permutation(code));
+            }
+            permutation = perm;
+        }
+        return perm;
+    }
+
+    void applyTo(Cube cube) {
+        long start = System.nanoTime();
+        if (codes.length == 1) {
+            cube.move(codes[0]);
+        } else if (codes.length > 1) {
+            cube.applyPermutation(permutation());
+        }
+        Metrics.stop(Metrics.Stage.MOVE_APPLICATION, start);
+    }
+
+    static MoveSequence of(byte[] codes) {
+        return codes.length == 0 ? EMPTY : new MoveSequence(codes.clone());
+    }
+
+    static MoveSequence of(byte[] codes, int length) {
+        return length == 0 ? EMPTY : new MoveSequence(Arrays.copyOf(codes, length));
+    }
+
+    /** The sequence that undoes this one. */
+    MoveSequence inverse() {
+        byte[] inv = new byte[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            int code = codes[codes.length - 1 - i];
+            inv[i] = (byte) (code - code % 3 + 2 - code % 3);
+        }
+        return codes.length == 0 ? EMPTY : new MoveSequence(inv);
+    }
+
+    /**
+     * The same transformation using face turns only: each rotation is pushed
+     * past the turns after it, renaming them, so "x U" becomes "F x"; slice
+     * and wide turns become their outer turns and a rotation first. Returns
+     * null if the rotations do not cancel out overall.
+     */
+    MoveSequence withoutRotations() {
+        byte[] out = new byte[2 * codes.length];
+        int n = 0, frame = 0;
+        for (byte move : codes) {
+            for (byte code : Cube.primitives(move)) {
+                if (code < Cube.FACE_MOVES)
+                    out[n++] = FRAME_MOVES[frame][code];
+                else
+                    frame = FRAME_NEXT[frame][code - Cube.FACE_MOVES];
+            }
+        }
+        if (frame != 0)
+            return null;
+        return n == 0 ? EMPTY : new MoveSequence(Arrays.copyOf(out, n));
+    }
+
+    /** The shortest equivalent sequence {@link #simplify} finds, without rotations. */
+    MoveSequence simplified() {
+        byte[] out = new byte[2 * codes.length];
+        int n = simplify(codes, codes.length, out);
+        return n != 0 && n == out.length ? new MoveSequence(out) : of(out, n);
+    }
+
+    /**
+     * Streaming move canceller. Writes codes[0, length) to out with every
+     * rotation absorbed into the turns after it (trailing rotations are
+     * dropped) and each turn merged into an earlier turn of the same face,
+     * looking past a turn of the opposite face since the two commute: "R L R'"
+     * becomes "L". Merges that cancel out cascade, so "R U U' R'" vanishes.
+     * Slice and wide turns are read as their {@link Cube#primitives}, so out
+     * needs room for two moves per input move. Does not allocate; out may be
+     * codes itself when codes holds no slice or wide turns. Returns the
+     * number of moves written.
+     */
+    static int simplify(byte[] codes, int length, byte[] out) {
+        int n = 0, frame = 0;
+        for (int i = 0; i < length; i++) {
+            for (int code : Cube.primitives(codes[i])) {
+                if (code >= Cube.FACE_MOVES) {
+                    frame = FRAME_NEXT[frame][code - Cube.FACE_MOVES];
+                    continue;
+                }
+                code = FRAME_MOVES[frame][code];
+                int face = code / 3;
+                // Merging keeps at most one turn per face at the end of out, so
+                // one opposite-face turn is all there can be to look past
+                int j = n - 1;
+                if (j >= 0 && out[j] / 3 == OPPOSITE_FACE[face])
+                    j--;
+                if (j < 0 || out[j] / 3 != face) {
+                    out[n++] = (byte) code;
+                    continue;
+                }
+                int quarterTurns = (out[j] % 3 + code % 3 + 2) % 4;
+                if (quarterTurns != 0) {
+                    out[j] = (byte) (3 * face + quarterTurns - 1);
+                } else {
+                    if (j < n - 1)
+                        out[j] = out[j + 1];
+                    n--;
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Appends each move in the internal notation ("R", "R2", "Ri"). */
+    void addNamesTo(List<String> moves) {
+        for (byte code : codes) {
+            moves.add(Cube.moveName(code));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(codes.length * 3);
+        for (byte code : codes) {
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append(Cube.moveName(code).replace('i', '\''));
+        }
+        return sb.toString();
+    }
+}
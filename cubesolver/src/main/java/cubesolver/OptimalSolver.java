@@ -0,0 +1,366 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Guaranteed-shortest solutions in the face turn metric, after Korf: an
+ * IDA* search whose estimate is the largest of three exact pattern database
+ * distances (see {@link PatternDatabases}), so it never overestimates and
+ * the first solution found at a depth is optimal.
+ *
+ * Pieces are modelled as cubies in Kociemba's conventions (corners URF UFL
+ * ULB UBR DFR DLF DBL DRB, edges UR UF UL UB DR DF DL DB FR FL BL BR).
+ * Corners are tracked as a permutation and a twist coordinate with move
+ * tables; edges as one "slot" (position * 2 + flip) per cubie, moved by a
+ * 24-entry table per move.
+ *
+ * One search is spread over threads: every iteration hands out the
+ * three-move prefixes of the tree, and the solution under the lowest
+ * prefix wins, so the answer does not depend on the thread count. States
+ * up to about 15 moves take seconds to minutes; the hardest random states
+ * can take hours.
+ */
+final class OptimalSolver {
+    static final int MOVES = Cube.FACE_MOVES;
+    static final int GOD_NUMBER = 20;
+    // Corner move tables, [coordinate * MOVES + move]
+    static final char[] PERM_MOVE = new char[PatternDatabases.CORNER_PERMS * MOVES];
+    static final char[] TWIST_MOVE = new char[PatternDatabases.CORNER_TWISTS * MOVES];
+    // Edge slot after each move, [move * 24 + slot]
+    static final byte[] EDGE_MOVE = new byte[MOVES * 24];
+    private static final int PREFIX_DEPTH = 3;
+    private static final int[][] PREFIXES;
+
+    static {
+        int[][] cp = new int[MOVES][8], co = new int[MOVES][8], ep = new int[MOVES][12], eo = new int[MOVES][12];
+        for (int m = 0; m < MOVES; m++) {
+            Cube turned = new Cube();
+            turned.move(m);
+            if (!readCubies(turned, cp[m], co[m], ep[m], eo[m]))
+                throw new IllegalStateException("Bad move " + Cube.moveName(m));
+            // ep[m][i] is the edge taken to position i, flipped by eo[m][i]
+            for (int i = 0; i < 12; i++)
+                for (int flip = 0; flip < 2; flip++)
+                    EDGE_MOVE[m * 24 + ep[m][i] * 2 + flip] = (byte) (i * 2 + (flip ^ eo[m][i]));
+        }
+
+        int[] perm = new int[8], twist = new int[8], next = new int[8];
+        for (int c = 0; c < PatternDatabases.CORNER_PERMS; c++) {
+            unrankPermutation(c, perm);
+            for (int m = 0; m < MOVES; m++) {
+                for (int i = 0; i < 8; i++)
+                    next[i] = perm[cp[m][i]];
+                PERM_MOVE[c * MOVES + m] = (char) rankPermutation(next);
+            }
+        }
+        for (int c = 0; c < PatternDatabases.CORNER_TWISTS; c++) {
+            unrankTwist(c, twist);
+            for (int m = 0; m < MOVES; m++) {
+                for (int i = 0; i < 8; i++)
+                    next[i] = (twist[cp[m][i]] + co[m][i]) % 3;
+                TWIST_MOVE[c * MOVES + m] = (char) rankTwist(next);
+            }
+        }
+
+        List<int[]> prefixes = new ArrayList<>();
+        int[] prefix = new int[PREFIX_DEPTH];
+        collectPrefixes(prefix, 0, -1, prefixes);
+        PREFIXES = prefixes.toArray(new int[0][]);
+    }
+
+    private OptimalSolver() {
+    }
+
+    // Face turn sequences of length PREFIX_DEPTH, in move order, without
+    // redundant ones (see allowed)
+    private static void collectPrefixes(int[] prefix, int ply, int lastFace, List<int[]> out) {
+        if (ply == prefix.length) {
+            out.add(prefix.clone());
+            return;
+        }
+        for (int m = 0; m < MOVES; m++) {
+            if (allowed(m / 3, lastFace)) {
+                prefix[ply] = m;
+                collectPrefixes(prefix, ply + 1, m / 3, out);
+            }
+        }
+    }
+
+    // No two turns of one face in a row, and opposite faces (which commute)
+    // only in ascending order
+    private static boolean allowed(int face, int lastFace) {
+        return lastFace < 0 || (face != lastFace && !(MoveSequence.OPPOSITE_FACE[face] == lastFace && face < lastFace));
+    }
+
+    /**
+     * Reads the cubies of cube: cp[i] and co[i] are the corner at position i
+     * and its twist, ep[i] and eo[i] the edge and its flip. Returns false if
+     * the stickers do not form a solvable cube.
+     */
+    static boolean readCubies(Cube cube, int[] cp, int[] co, int[] ep, int[] eo) {
+        byte[] cubies = new byte[TwoPhaseSearch.CUBIES];
+        if (CubeValidator.toCubies(cube, cubies) != null)
+            return false;
+        for (int i = 0; i < 8; i++) {
+            cp[i] = cubies[i];
+            co[i] = cubies[TwoPhaseSearch.CORNER_TWIST + i];
+        }
+        for (int i = 0; i < 12; i++) {
+            ep[i] = cubies[TwoPhaseSearch.EDGE_PERM + i];
+            eo[i] = cubies[TwoPhaseSearch.EDGE_FLIP + i];
+        }
+        return true;
+    }
+
+    // Lehmer code of a permutation of 0..7
+    static int rankPermutation(int[] perm) {
+        int rank = 0;
+        for (int i = 0; i < 8; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < 8; j++)
+                if (perm[j] < perm[i])
+                    smaller++;
+            rank = rank * (8 - i) + smaller;
+        }
+        return rank;
+    }
+
+    static void unrankPermutation(int rank, int[] perm) {
+        int[] digits = new int[8];
+        for (int i = 7; i >= 0; i--) {
+            digits[i] = rank % (8 - i);
+            rank /= 8 - i;
+        }
+        int free = 0xff;
+        for (int i = 0; i < 8; i++) {
+            int v = free;
+            for (int k = 0; k < digits[i]; k++)
+                v &= v - 1;
+            perm[i] = Integer.numberOfTrailingZeros(v);
+            free &= ~(1 << perm[i]);
+        }
+    }
+
+    // Twists of the first seven positions in base 3; the eighth follows
+    static int rankTwist(int[] twist) {
+        int rank = 0;
+        for (int i = 0; i < 7; i++)
+            rank = rank * 3 + twist[i];
+        return rank;
+    }
+
+    static void unrankTwist(int rank, int[] twist) {
+        int sum = 0;
+        for (int i = 6; i >= 0; i--) {
+            twist[i] = rank % 3;
+            sum += twist[i];
+            rank /= 3;
+        }
+        twist[7] = (3 - sum % 3) % 3;
+    }
+
+    /**
+     * Index of the six edges first..first+5 in an edge pattern database:
+     * where they are, as a partial permutation of the 12 positions, times 64
+     * plus one flip bit each. slots holds one slot per edge cubie.
+     */
+    static int edgeIndex(byte[] slots, int first) {
+        int used = 0, rank = 0, flips = 0;
+        for (int k = 0; k < 6; k++) {
+            int slot = slots[first + k], position = slot >> 1;
+            rank = rank * (12 - k) + position - Integer.bitCount(used & ((1 << position) - 1));
+            used |= 1 << position;
+            flips = flips << 1 | (slot & 1);
+        }
+        return rank << 6 | flips;
+    }
+
+    // Inverse of edgeIndex for the six edges tracked, written to slots[0..5]
+    static void edgeSlots(int index, byte[] slots) {
+        int flips = index & 63, rank = index >>> 6;
+        int[] digits = new int[6];
+        for (int k = 5; k >= 0; k--) {
+            digits[k] = rank % (12 - k);
+            rank /= 12 - k;
+        }
+        int free = 0xfff;
+        for (int k = 0; k < 6; k++) {
+            int v = free;
+            for (int d = 0; d < digits[k]; d++)
+                v &= v - 1;
+            int position = Integer.numberOfTrailingZeros(v);
+            free &= ~(1 << position);
+            slots[k] = (byte) (position * 2 + (flips >> (5 - k) & 1));
+        }
+    }
+
+    /**
+     * Shortest solution of cube, searched on the given number of threads.
+     * onDepth, if not null, hears each depth as its iteration starts.
+     *
+     * @throws IllegalArgumentException if the cube cannot be solved
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    static MoveSequence solve(Cube cube, int threads, IntConsumer onDepth) {
+        int[] cp = new int[8], co = new int[8], ep = new int[12], eo = new int[12];
+        if (!readCubies(cube, cp, co, ep, eo))
+            throw new IllegalArgumentException("The cube cannot be solved");
+        byte[] slots = new byte[12];
+        for (int i = 0; i < 12; i++)
+            slots[ep[i]] = (byte) (i * 2 + eo[i]);
+        PatternDatabases tables = PatternDatabases.get();
+        Search root = new Search(tables, rankPermutation(cp), rankTwist(co), slots);
+
+        int estimate = root.estimate(0);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "optimal-search");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (int depth = estimate; depth <= GOD_NUMBER; depth++) {
+                if (onDepth != null)
+                    onDepth.accept(depth);
+                MoveSequence found = depth <= PREFIX_DEPTH ? root.searchAll(depth)
+                        : searchPrefixes(root, depth, Math.max(1, threads), pool);
+                if (found != null)
+                    return found;
+            }
+            throw new IllegalStateException("No solution within " + GOD_NUMBER + " moves");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // One iteration with the prefixes shared out over the pool
+    private static MoveSequence searchPrefixes(Search root, int depth, int threads, ExecutorService pool) {
+        AtomicInteger nextPrefix = new AtomicInteger();
+        AtomicInteger bestPrefix = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        MoveSequence[] solutions = new MoveSequence[PREFIXES.length];
+        List<Future<?>> parts = new ArrayList<>(threads);
+        for (int w = 0; w < threads; w++) {
+            parts.add(pool.submit(() -> {
+                Search search = root.copy();
+                int prefix;
+                while ((prefix = nextPrefix.getAndIncrement()) < PREFIXES.length && prefix < bestPrefix.get()) {
+                    MoveSequence found = search.searchPrefix(PREFIXES[prefix], depth, prefix, bestPrefix, cancelled);
+                    if (found != null) {
+                        solutions[prefix] = found;
+                        bestPrefix.accumulateAndGet(prefix, Math::min);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> part : parts)
+                part.get();
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Optimal search interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Optimal search failed", e.getCause());
+        }
+        int best = bestPrefix.get();
+        return best == Integer.MAX_VALUE ? null : solutions[best];
+    }
+
+    // IDA* state of one thread: the position at every ply of the current path
+    private static final class Search {
+        private final PatternDatabases tables;
+        private final int[] perm = new int[GOD_NUMBER + 1], twist = new int[GOD_NUMBER + 1];
+        private final byte[][] edges = new byte[GOD_NUMBER + 1][12];
+        private final byte[] path = new byte[GOD_NUMBER];
+        // Prefix being searched, and the shared state that can end it early
+        private int prefix;
+        private AtomicInteger bestPrefix;
+        private AtomicBoolean cancelled;
+        private boolean stopped;
+        private int nodes;
+
+        Search(PatternDatabases tables, int perm, int twist, byte[] edges) {
+            this.tables = tables;
+            this.perm[0] = perm;
+            this.twist[0] = twist;
+            System.arraycopy(edges, 0, this.edges[0], 0, 12);
+        }
+
+        Search copy() {
+            return new Search(tables, perm[0], twist[0], edges[0]);
+        }
+
+        // Lower bound on the moves left at ply
+        int estimate(int ply) {
+            return Math.max(tables.corners(perm[ply], twist[ply]),
+                    Math.max(tables.edges(edges[ply], 0), tables.edges(edges[ply], 6)));
+        }
+
+        MoveSequence searchAll(int depth) {
+            stopped = false;
+            return search(0, depth, -1) ? solution(depth) : null;
+        }
+
+        MoveSequence searchPrefix(int[] moves, int depth, int prefix, AtomicInteger bestPrefix,
+                AtomicBoolean cancelled) {
+            this.prefix = prefix;
+            this.bestPrefix = bestPrefix;
+            this.cancelled = cancelled;
+            stopped = false;
+            for (int ply = 0; ply < moves.length; ply++) {
+                if (!turn(ply, moves[ply], depth - ply - 1))
+                    return null;
+            }
+            return search(moves.length, depth - moves.length, moves[moves.length - 1] / 3) ? solution(depth) : null;
+        }
+
+        // Depth-first search below ply with budget moves left
+        private boolean search(int ply, int budget, int lastFace) {
+            if (budget == 0)
+                return true;
+            if ((++nodes & 0xfff) == 0 && bestPrefix != null
+                    && (cancelled.get() || bestPrefix.get() < prefix || Thread.currentThread().isInterrupted()))
+                stopped = true;
+            if (stopped)
+                return false;
+            for (int m = 0; m < MOVES; m++) {
+                if (allowed(m / 3, lastFace) && turn(ply, m, budget - 1) && search(ply + 1, budget - 1, m / 3))
+                    return true;
+            }
+            return false;
+        }
+
+        // Makes move m at ply; false if the position it leads to needs more than budget moves
+        private boolean turn(int ply, int m, int budget) {
+            int p = PERM_MOVE[perm[ply] * MOVES + m], t = TWIST_MOVE[twist[ply] * MOVES + m];
+            if (tables.corners(p, t) > budget)
+                return false;
+            byte[] from = edges[ply], to = edges[ply + 1];
+            int base = m * 24;
+            for (int i = 0; i < 12; i++)
+                to[i] = EDGE_MOVE[base + from[i]];
+            if (tables.edges(to, 0) > budget || tables.edges(to, 6) > budget)
+                return false;
+            perm[ply + 1] = p;
+            twist[ply + 1] = t;
+            path[ply] = (byte) m;
+            return true;
+        }
+
+        private MoveSequence solution(int length) {
+            return MoveSequence.of(Arrays.copyOf(path, length));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Two-phase search raced over six versions of one cube: the cube turned so
+ * that each of its three axes in turn lies along U/D, and the inverse of
+ * each. Phase 1 heads for the subgroup of the U/D axis, so the six searches
+ * find different solutions, and the best of them is usually shorter than
+ * one search finds in the same time. They share the best length found so
+ * far and each looks only for shorter solutions; every solution is mapped
+ * back to face turns of the original cube.
+ */
+final class OrientationRace {
+    // Whole-cube quarter rotations bringing each axis to U/D; -1 for none
+    private static final int[] ROTATIONS = { -1, Cube.X, Cube.Z };
+    static final int VARIANTS = 2 * ROTATIONS.length;
+
+    private OrientationRace() {
+    }
+
+    /**
+     * Shortest solution of cube the six searches find within budgetMillis
+     * and maxDepth moves, returned as soon as one of targetLength moves or
+     * fewer turns up; "Error n" as from {@link TwoPhaseSearch} otherwise.
+     * Each new overall best is passed to onImprovement, if not null, from
+     * the search threads but one at a time, so every call gets a shorter
+     * solution than the one before; it must return quickly. Every call runs
+     * its own six threads, so concurrent races do not wait for each other.
+     * Interrupting the caller stops the race.
+     */
+    static String solve(Cube cube, int maxDepth, long budgetMillis, int targetLength,
+            Consumer<MoveSequence> onImprovement) {
+        byte[][] cubies = new byte[VARIANTS][];
+        for (int v = 0; v < VARIANTS; v += 2) {
+            Cube turned = new Cube(cube);
+            if (ROTATIONS[v / 2] >= 0)
+                turned.move(ROTATIONS[v / 2]);
+            cubies[v] = new byte[TwoPhaseSearch.CUBIES];
+            CubeValidator.Problem problem = CubeValidator.toCubies(turned, cubies[v]);
+            if (problem != null)
+                return problem.error();
+            cubies[v + 1] = TwoPhaseSearch.inverse(cubies[v]);
+        }
+
+        AtomicInteger bound = new AtomicInteger(maxDepth + 1);
+        Object lock = new Object();
+        MoveSequence[] best = new MoveSequence[1];
+        // One thread per variant so all six run at once, each with its own search state
+        ExecutorService pool = Executors.newFixedThreadPool(VARIANTS, r -> {
+            Thread t = new Thread(r, "orientation-race");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<?>> searches = new ArrayList<>(VARIANTS);
+        try {
+            for (int v = 0; v < VARIANTS; v++) {
+                int variant = v;
+                searches.add(pool.submit(() -> new TwoPhaseSearch().solutionBelow(cubies[variant], bound,
+                        targetLength, budgetMillis, solution -> {
+                            MoveSequence moves = toOriginal(variant, MoveSequence.parse(solution));
+                            // Published under the lock, or a slower thread could report
+                            // a longer solution after a shorter one
+                            synchronized (lock) {
+                                if (best[0] != null && moves.length() >= best[0].length())
+                                    return;
+                                best[0] = moves;
+                                if (onImprovement != null)
+                                    onImprovement.accept(moves);
+                            }
+                        })));
+            }
+            for (Future<?> search : searches)
+                search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Race search failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        synchronized (lock) {
+            return best[0] != null ? best[0].toString() : "Error 8";
+        }
+    }
+
+    // Face turns solving the original cube, from a solution of variant v
+    private static MoveSequence toOriginal(int v, MoveSequence solution) {
+        if (v % 2 == 1)
+            solution = solution.inverse();
+        int rotation = ROTATIONS[v / 2];
+        if (rotation < 0)
+            return solution;
+        // Turn the cube, solve it there, turn it back
+        byte[] codes = new byte[solution.length() + 2];
+        codes[0] = (byte) rotation;
+        for (int i = 0; i < solution.length(); i++)
+            codes[i + 1] = (byte) solution.get(i);
+        codes[codes.length - 1] = (byte) (rotation + 2);
+        return MoveSequence.of(codes).withoutRotations();
+    }
+}
@@ -0,0 +1,133 @@
+package cubesolver;
+
+import org.kociemba.twophase.TableFile;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Disk-backed pattern databases for {@link OptimalSolver}, after Korf: the
+ * exact number of moves needed to solve every corner configuration (8! *
+ * 3^7 = 88,179,840 entries) and every configuration of each half of the
+ * edges (12!/6! * 2^6 = 42,577,920 entries each), packed two to a byte.
+ *
+ * The first process to need them builds the tables by breadth-first search,
+ * which takes a few minutes, writes them to a checksummed file and maps it.
+ * Later processes map the file directly, so every JVM on a host shares the
+ * same pages through the page cache. The location is taken from the system
+ * property optimal.tables and defaults to
+ * ~/.cubesolver/optimal-tables-v1.bin; if the file cannot be written the
+ * tables are kept on the heap.
+ */
+final class PatternDatabases {
+    static final int CORNER_PERMS = 40320, CORNER_TWISTS = 2187;
+    static final int CORNER_STATES = CORNER_PERMS * CORNER_TWISTS;
+    static final int EDGE_STATES = 12 * 11 * 10 * 9 * 8 * 7 * 64;
+
+    private static final int MAGIC = 0x4B504442; // "KPDB"
+    private static final int VERSION = 1;
+    // One byte per two entries
+    private static final TableFile FILE = new TableFile(MAGIC, VERSION,
+            new int[] { CORNER_STATES / 2, EDGE_STATES / 2, EDGE_STATES / 2 }, new int[] { 1, 1, 1 });
+    private static final int UNSEEN = 15;
+
+    private final ByteBuffer corners, edgesFirst, edgesSecond;
+
+    private PatternDatabases(ByteBuffer image) {
+        ByteBuffer[] tables = FILE.tables(image);
+        corners = tables[0];
+        edgesFirst = tables[1];
+        edgesSecond = tables[2];
+    }
+
+    private static class Holder {
+        static final PatternDatabases INSTANCE = open(Paths.get(System.getProperty("optimal.tables",
+                System.getProperty("user.home") + "/.cubesolver/optimal-tables-v" + VERSION + ".bin")));
+    }
+
+    /** The shared tables, mapped (or built) on first use. */
+    static PatternDatabases get() {
+        return Holder.INSTANCE;
+    }
+
+    int corners(int perm, int twist) {
+        return get(corners, perm * CORNER_TWISTS + twist);
+    }
+
+    // Distance of the six edge cubies from first on, slots as in OptimalSolver
+    int edges(byte[] slots, int first) {
+        return get(first == 0 ? edgesFirst : edgesSecond, OptimalSolver.edgeIndex(slots, first));
+    }
+
+    private static int get(ByteBuffer table, int index) {
+        int b = table.get(index >>> 1);
+        return (index & 1) == 0 ? b & 0x0f : (b >>> 4) & 0x0f;
+    }
+
+    // Map the table file if it is valid, otherwise build it and replace it
+    static PatternDatabases open(Path file) {
+        return new PatternDatabases(FILE.open(file, PatternDatabases::build, "optimal solver tables"));
+    }
+
+    private static ByteBuffer build() {
+        ByteBuffer image = FILE.newImage();
+
+        image.put(breadthFirst(CORNER_STATES, 0, (index, next) -> {
+            int perm = index / CORNER_TWISTS, twist = index % CORNER_TWISTS;
+            for (int m = 0; m < OptimalSolver.MOVES; m++)
+                next[m] = OptimalSolver.PERM_MOVE[perm * OptimalSolver.MOVES + m] * CORNER_TWISTS
+                        + OptimalSolver.TWIST_MOVE[twist * OptimalSolver.MOVES + m];
+        }));
+        for (int first = 0; first < 12; first += 6) {
+            byte[] solved = new byte[12];
+            for (int k = 0; k < 6; k++)
+                solved[k] = (byte) ((first + k) * 2);
+            byte[] slots = new byte[6], moved = new byte[6];
+            image.put(breadthFirst(EDGE_STATES, OptimalSolver.edgeIndex(solved, 0), (index, next) -> {
+                OptimalSolver.edgeSlots(index, slots);
+                for (int m = 0; m < OptimalSolver.MOVES; m++) {
+                    for (int k = 0; k < 6; k++)
+                        moved[k] = OptimalSolver.EDGE_MOVE[m * 24 + slots[k]];
+                    next[m] = OptimalSolver.edgeIndex(moved, 0);
+                }
+            }));
+        }
+
+        FILE.seal(image);
+        return image;
+    }
+
+    // Neighbours of one state, by move
+    private interface Expander {
+        void expand(int index, int[] next);
+    }
+
+    // Level by level from the solved state: every entry at the current depth
+    // gives its unseen neighbours the next depth
+    private static byte[] breadthFirst(int states, int solved, Expander expander) {
+        byte[] table = new byte[states / 2];
+        Arrays.fill(table, (byte) 0xff);
+        table[solved >>> 1] &= (byte) ((solved & 1) == 0 ? 0xf0 : 0x0f);
+        int[] next = new int[OptimalSolver.MOVES];
+        for (int depth = 0;; depth++) {
+            boolean grew = false;
+            for (int i = 0; i < states; i++) {
+                int b = table[i >>> 1];
+                if (((i & 1) == 0 ? b & 0x0f : (b >>> 4) & 0x0f) != depth)
+                    continue;
+                expander.expand(i, next);
+                for (int n : next) {
+                    int shift = (n & 1) << 2;
+                    if ((table[n >>> 1] >>> shift & 0x0f) == UNSEEN) {
+                        table[n >>> 1] ^= (byte) ((UNSEEN ^ (depth + 1)) << shift);
+                        grew = true;
+                    }
+                }
+            }
+            if (!grew)
+                return table;
+        }
+    }
+}
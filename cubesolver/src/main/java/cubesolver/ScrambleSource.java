@@ -0,0 +1,119 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random-state scrambles. A uniformly random reachable cube is drawn and
+ * solved with the two-phase search; the inverse of that solution is the
+ * scramble and the solution itself comes along for free. Producer threads
+ * keep a bounded queue of ready pairs topped up, so a caller normally takes
+ * one without waiting; if the queue has run dry the caller generates its
+ * own instead of blocking.
+ */
+final class ScrambleSource {
+    static final ScrambleSource SHARED = new ScrambleSource(256,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * A scramble and the solution kociembaSolve() finds for the state it
+     * produces, with the time the two-phase search took to find it.
+     */
+    static final class Scramble {
+        final MoveSequence scramble;
+        final MoveSequence solution;
+        final long searchNanos;
+
+        Scramble(MoveSequence scramble, MoveSequence solution, long searchNanos) {
+            this.scramble = scramble;
+            this.solution = solution;
+            this.searchNanos = searchNanos;
+        }
+    }
+
+    private final BlockingQueue<Scramble> ready;
+    private final int producers;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    ScrambleSource(int capacity, int producers) {
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        this.producers = producers;
+    }
+
+    /**
+     * Generates one scramble on the calling thread. A seeded gen gives the
+     * same scrambles every time; search must not be in use elsewhere.
+     *
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    static Scramble generate(RandomGenerator gen, TwoPhaseSearch search) {
+        while (true) {
+            byte[] cubies = TwoPhaseSearch.randomCubies(gen);
+            long start = System.nanoTime();
+            String solution = search.solution(cubies, Solver.MAX_DEPTH, Solver.TIMEOUT, false);
+            long searchNanos = System.nanoTime() - start;
+            // Only a search timeout or an interrupt can fail here; draw another
+            // state after a timeout
+            if (!solution.startsWith("Error")) {
+                MoveSequence moves = MoveSequence.parse(solution);
+                return new Scramble(moves.inverse(), moves, searchNanos);
+            }
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException("Scramble generation interrupted");
+        }
+    }
+
+    /**
+     * The random stream of run number run in a simulation with the given
+     * master seed. It depends on nothing else, so any run can be replayed on
+     * its own: the SplitMix64 finalizer spreads consecutive run numbers over
+     * unrelated seeds of a SplittableRandom.
+     */
+    static SplittableRandom runRandom(long seed, int run) {
+        long z = seed + run * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    /**
+     * Takes a prefetched scramble, or generates one with search if none is
+     * ready. Starts the producers on first use.
+     */
+    Scramble next(TwoPhaseSearch search) {
+        start();
+        Scramble scramble = ready.poll();
+        return scramble != null ? scramble : generate(ThreadLocalRandom.current(), search);
+    }
+
+    /** Starts the producer threads; later calls do nothing. */
+    void start() {
+        if (!started.compareAndSet(false, true))
+            return;
+        for (int i = 0; i < producers; i++) {
+            Thread t = new Thread(this::produce, "scramble-producer");
+            t.setDaemon(true);
+            // Filling the queue must not compete with the UI or the solvers
+            t.setPriority(Thread.MIN_PRIORITY);
+            t.start();
+        }
+    }
+
+    private void produce() {
+        TwoPhaseSearch search = new TwoPhaseSearch();
+        try {
+            while (true) {
+                ready.put(generate(ThreadLocalRandom.current(), search));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package cubesolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Properties;
+
+/**
+ * Progress of one simulation: which blocks of runs are done and their
+ * merged result, optionally mirrored to a checkpoint file. The file is a
+ * properties file naming the simulation (seed, run count, block size) and
+ * holding the done blocks and the merged result; it is rewritten through a
+ * temporary file and a rename, so a crash mid-write leaves the previous
+ * checkpoint intact.
+ */
+final class SimulationProgress {
+    private static final String FORMAT = "2";
+    // Minimum time between two checkpoint writes
+    static final long CHECKPOINT_INTERVAL_MILLIS = 30_000;
+
+    private final int runs;
+    private final long seed;
+    private final int chunkSize;
+    private final Path file;
+    private final BitSet done;
+    private final Solver.SimulationResult result;
+    private long lastSave = System.nanoTime();
+
+    private SimulationProgress(int runs, long seed, int chunkSize, Path file, BitSet done,
+            Solver.SimulationResult result) {
+        this.runs = runs;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.file = file;
+        this.done = done;
+        this.result = result;
+        result.seed = seed;
+    }
+
+    /** Starts a simulation, or resumes it if file (which may be null) holds a checkpoint of it. */
+    static SimulationProgress open(int runs, long seed, int chunkSize, Path file) {
+        if (file == null || !Files.exists(file))
+            return new SimulationProgress(runs, seed, chunkSize, file, new BitSet(), new Solver.SimulationResult());
+
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read checkpoint " + file, e);
+        }
+        if (!FORMAT.equals(p.getProperty("format")) || !String.valueOf(seed).equals(p.getProperty("seed"))
+                || !String.valueOf(runs).equals(p.getProperty("runs"))
+                || !String.valueOf(chunkSize).equals(p.getProperty("chunk")))
+            throw new IllegalArgumentException("Checkpoint " + file + " is for a different simulation (seed "
+                    + p.getProperty("seed") + ", " + p.getProperty("runs") + " runs)");
+
+        Solver.SimulationResult r = new Solver.SimulationResult();
+        BitSet done = new BitSet();
+        try {
+            r.runs = Integer.parseInt(p.getProperty("result.runs"));
+            r.bestMoves = Integer.parseInt(p.getProperty("result.bestMoves"));
+            r.bestRun = Integer.parseInt(p.getProperty("result.bestRun"));
+            r.bestScramble = p.getProperty("result.bestScramble");
+            r.worstMoves = Integer.parseInt(p.getProperty("result.worstMoves"));
+            r.worstRun = Integer.parseInt(p.getProperty("result.worstRun"));
+            r.worstScramble = p.getProperty("result.worstScramble");
+            r.moves.merge(StreamingStats.decode(p.getProperty("stats.moves")));
+            r.solveNanos.merge(StreamingStats.decode(p.getProperty("stats.solveNanos")));
+            for (int i = 0; i < r.stepMoves.length; i++)
+                r.stepMoves[i].merge(StreamingStats.decode(p.getProperty("stats.step" + i)));
+            String blocks = p.getProperty("done", "");
+            if (!blocks.isEmpty()) {
+                for (String range : blocks.split(",")) {
+                    int dash = range.indexOf('-');
+                    int from = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+                    int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1));
+                    done.set(from, to + 1);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | NullPointerException e) {
+            throw new IllegalArgumentException("Checkpoint " + file + " is damaged", e);
+        }
+        return new SimulationProgress(runs, seed, chunkSize, file, done, r);
+    }
+
+    int runs() {
+        return runs;
+    }
+
+    long seed() {
+        return seed;
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    int chunks() {
+        return (runs + chunkSize - 1) / chunkSize;
+    }
+
+    synchronized int chunksDone() {
+        return done.cardinality();
+    }
+
+    synchronized boolean isDone(int chunk) {
+        return done.get(chunk);
+    }
+
+    /** Records a finished block, writing a checkpoint if the last one is old enough. */
+    synchronized void complete(int chunk, Solver.SimulationResult part) {
+        result.merge(part);
+        done.set(chunk);
+        if (System.nanoTime() - lastSave >= CHECKPOINT_INTERVAL_MILLIS * 1_000_000L)
+            save();
+    }
+
+    /** Writes the checkpoint now; does nothing without a checkpoint file. */
+    synchronized void save() {
+        lastSave = System.nanoTime();
+        if (file == null)
+            return;
+        Properties p = new Properties();
+        p.setProperty("format", FORMAT);
+        p.setProperty("seed", String.valueOf(seed));
+        p.setProperty("runs", String.valueOf(runs));
+        p.setProperty("chunk", String.valueOf(chunkSize));
+        StringBuilder blocks = new StringBuilder();
+        for (int from = done.nextSetBit(0); from >= 0; from = done.nextSetBit(from)) {
+            int to = done.nextClearBit(from) - 1;
+            if (blocks.length() > 0)
+                blocks.append(',');
+            blocks.append(from);
+            if (to > from)
+                blocks.append('-').append(to);
+            from = to + 1;
+        }
+        p.setProperty("done", blocks.toString());
+        p.setProperty("result.runs", String.valueOf(result.runs));
+        p.setProperty("result.bestMoves", String.valueOf(result.bestMoves));
+        p.setProperty("result.bestRun", String.valueOf(result.bestRun));
+        p.setProperty("result.worstMoves", String.valueOf(result.worstMoves));
+        p.setProperty("result.worstRun", String.valueOf(result.worstRun));
+        if (result.bestScramble != null)
+            p.setProperty("result.bestScramble", result.bestScramble);
+        if (result.worstScramble != null)
+            p.setProperty("result.worstScramble", result.worstScramble);
+        p.setProperty("stats.moves", result.moves.encode());
+        p.setProperty("stats.solveNanos", result.solveNanos.encode());
+        for (int i = 0; i < result.stepMoves.length; i++)
+            p.setProperty("stats.step" + i, result.stepMoves[i].encode());
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(out, "Cube solver simulation checkpoint");
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write checkpoint " + file, e);
+        }
+    }
+
+    synchronized Solver.SimulationResult result() {
+        Solver.SimulationResult copy = new Solver.SimulationResult();
+        copy.merge(result);
+        copy.seed = seed;
+        return copy;
+    }
+}
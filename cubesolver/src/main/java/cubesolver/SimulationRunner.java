@@ -0,0 +1,84 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Headless simulation runner for long runs. Every run scrambles from a
+ * random stream derived from the master seed and its run number, so the
+ * same seed and run count give the same result on any number of threads,
+ * and a single run can be replayed with {@link Solver#scramble(long, int)}.
+ *
+ * <pre>
+ * java -cp cubesolver-app.jar cubesolver.SimulationRunner --runs N [options]
+ *   --seed S            master seed (default: random, printed)
+ *   --threads N         worker threads (default: available processors)
+ *   --checkpoint FILE   save progress to FILE and resume from it if present
+ * </pre>
+ *
+ * An interrupted simulation started again with the same seed, run count and
+ * checkpoint file carries on from the last checkpoint.
+ */
+public final class SimulationRunner {
+
+    private SimulationRunner() {
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int runs = 0;
+        long seed = ThreadLocalRandom.current().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path checkpoint = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--runs":
+                        runs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--checkpoint":
+                        checkpoint = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+            }
+            if (runs <= 0 || threads <= 0)
+                throw new IllegalArgumentException("--runs and --threads must be positive");
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            System.err.println("Usage: SimulationRunner --runs N [--seed S] [--threads N] [--checkpoint FILE]");
+            System.exit(2);
+            return;
+        }
+
+        TwoPhaseSearch.loadTables();
+        long start = System.nanoTime();
+        Solver.SimulationResult result;
+        try {
+            result = new Solver(new Cube()).simulation(runs, seed, threads, checkpoint);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "seed %d, %d runs, %.1f s%n", result.seed, result.runs, seconds);
+        System.out.println(result.statsReport());
+        System.out.printf(Locale.ROOT, "best    %d moves, run %d: %s%n", result.bestMoves, result.bestRun,
+                result.bestScramble);
+        System.out.printf(Locale.ROOT, "worst   %d moves, run %d: %s%n", result.worstMoves, result.worstRun,
+                result.worstScramble);
+    }
+}
@@ -0,0 +1,73 @@
+package cubesolver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of solutions keyed on the canonical form of a state, so
+ * a solution found once is reused for every symmetric, rotated or recolored
+ * copy of that state. Solutions are stored in the canonical frame and mapped
+ * through the symmetry on the way in and out.
+ */
+final class SolutionCache {
+    static final SolutionCache SHARED = new SolutionCache(100000);
+
+    private final Map<Symmetry.Canonical, byte[]> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    SolutionCache(int maxEntries) {
+        this.entries = new LinkedHashMap<Symmetry.Canonical, byte[]>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Symmetry.Canonical, byte[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Returns the cached solution mapped into the frame of the state key was computed from, or null. */
+    MoveSequence get(Symmetry.Canonical key) {
+        byte[] canonical;
+        synchronized (entries) {
+            canonical = entries.get(key);
+        }
+        if (canonical == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return MoveSequence.of(Symmetry.conjugate(canonical, Symmetry.inverse(key.symmetry)));
+    }
+
+    void put(Symmetry.Canonical key, MoveSequence solution) {
+        byte[] codes = new byte[solution.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) solution.get(i);
+        }
+        byte[] canonical = Symmetry.conjugate(codes, key.symmetry);
+        synchronized (entries) {
+            entries.put(key, canonical);
+        }
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
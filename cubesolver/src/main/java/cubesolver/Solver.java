@@ -0,0 +1,638 @@
+package cubesolver;
+
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Contains the algorithms to solve a scrambled Cube.
+ * MODIFIED: Solve logic is now functional and supports step-by-step CFOP
+ * categorization.
+ */
+class Solver {
+
+    private Cube cube;
+    // The solution as move codes, and its simplified form; the latter is
+    // computed on first use and dropped whenever the codes change
+    private byte[] moveCodes = new byte[64];
+    private int moveCount;
+    private MoveSequence simplified;
+    private byte[] simplifyBuffer = new byte[64];
+    private List<String> lastScramble;
+    private int[] stepMovesCount;
+    private List<String> crossMoves, f2lMoves, ollMoves, pllMoves;
+    // Per-solver search state; the move and pruning tables behind it are shared
+    private final TwoPhaseSearch search = new TwoPhaseSearch();
+    private final byte[] cubies = new byte[TwoPhaseSearch.CUBIES];
+    private final SolutionCache cache = SolutionCache.SHARED;
+    // Length cap for the anytime search; loose enough that the first
+    // solution is found almost immediately
+    private static final int ANYTIME_MAX_DEPTH = 24;
+    // Limits of the plain two-phase solve
+    static final int MAX_DEPTH = 21;
+    static final long TIMEOUT = 100000;
+
+    public Solver(Cube cube) {
+        this.cube = cube;
+        reset();
+    }
+
+    public void reset() {
+        clearMoves();
+        this.lastScramble = new ArrayList<>();
+        this.stepMovesCount = new int[] { 0, 0, 0, 0 };
+        this.crossMoves = new ArrayList<>();
+        this.f2lMoves = new ArrayList<>();
+        this.ollMoves = new ArrayList<>();
+        this.pllMoves = new ArrayList<>();
+    }
+
+    public String getMoves() {
+        return simplifiedMoves().toString();
+    }
+
+    public String getCrossMoves() {
+        return crossMoves.stream().map(s -> s.replace("i", "'")).collect(Collectors.joining(" "));
+    }
+
+    public String getF2LMoves() {
+        return f2lMoves.stream().map(s -> s.replace("i", "'")).collect(Collectors.joining(" "));
+    }
+
+    public String getOLLMoves() {
+        return ollMoves.stream().map(s -> s.replace("i", "'")).collect(Collectors.joining(" "));
+    }
+
+    public String getPLLMoves() {
+        return pllMoves.stream().map(s -> s.replace("i", "'")).collect(Collectors.joining(" "));
+    }
+
+    public String getScramble() {
+        return lastScramble.stream().map(s -> s.replace("i", "'")).collect(Collectors.joining(" "));
+    }
+
+    public int getSolutionLength() {
+        return simplifiedMoves().length();
+    }
+
+    public int[] getStepMovesCount() {
+        return stepMovesCount;
+    }
+
+    /**
+     * Scrambles to a uniformly random state taken from
+     * {@link ScrambleSource#SHARED} and returns the solution found for it,
+     * the one {@link #kociembaSolve()} would return.
+     */
+    public MoveSequence scramble() {
+        ScrambleSource.Scramble next = ScrambleSource.SHARED.next(search);
+        scramble(next.scramble);
+        return next.solution;
+    }
+
+    /**
+     * Scrambles to the state of run number run of a simulation with the
+     * given master seed, see {@link ScrambleSource#runRandom}. Returns the
+     * solution found for it, as {@link #scramble()} does.
+     */
+    public MoveSequence scramble(long seed, int run) {
+        return scrambleRun(seed, run).solution;
+    }
+
+    // As scramble(seed, run), keeping the search time for the simulation statistics
+    private ScrambleSource.Scramble scrambleRun(long seed, int run) {
+        ScrambleSource.Scramble next = ScrambleSource.generate(ScrambleSource.runRandom(seed, run), search);
+        scramble(next.scramble);
+        return next;
+    }
+
+    // Random-move scramble; not uniform over states, see scramble()
+    public void scramble(int moveCount) {
+        reset();
+        cube.makeCube();
+        Random rand = ThreadLocalRandom.current();
+        String[] moveTypes = { "U", "F", "R", "L", "D", "B" };
+        String[] modifiers = { "", "i", "2" };
+        String lastMove = "";
+
+        for (int i = 0; i < moveCount; i++) {
+            String currentMove;
+            do {
+                currentMove = moveTypes[rand.nextInt(moveTypes.length)];
+            } while (currentMove.equals(lastMove));
+
+            String modifier = modifiers[rand.nextInt(modifiers.length)];
+            String fullMove = currentMove + modifier;
+
+            cube.move(fullMove);
+            lastScramble.add(fullMove);
+            lastMove = currentMove;
+        }
+    }
+
+    public void scramble(String scrambleString) {
+        scramble(MoveSequence.parse(scrambleString));
+    }
+
+    void scramble(MoveSequence moves) {
+        reset();
+        cube.makeCube();
+        moves.applyTo(cube);
+        moves.addNamesTo(lastScramble);
+    }
+
+    public void m(String movesString) {
+        MoveSequence moves = MoveSequence.parse(movesString);
+        moves.applyTo(cube);
+        appendMoves(moves);
+    }
+
+    private void clearMoves() {
+        moveCount = 0;
+        simplified = MoveSequence.EMPTY;
+    }
+
+    private void appendMoves(MoveSequence moves) {
+        if (moveCount + moves.length() > moveCodes.length)
+            moveCodes = Arrays.copyOf(moveCodes, Math.max(2 * moveCodes.length, moveCount + moves.length()));
+        for (int i = 0; i < moves.length(); i++) {
+            moveCodes[moveCount++] = (byte) moves.get(i);
+        }
+        simplified = null;
+    }
+
+    // Simplifies once per change to the move list, however often it is read
+    private MoveSequence simplifiedMoves() {
+        if (simplified == null) {
+            long start = System.nanoTime();
+            // Slice and wide turns can each become two face turns
+            if (simplifyBuffer.length < 2 * moveCount)
+                simplifyBuffer = new byte[2 * moveCodes.length];
+            int n = MoveSequence.simplify(moveCodes, moveCount, simplifyBuffer);
+            simplified = MoveSequence.of(simplifyBuffer, n);
+            Metrics.stop(Metrics.Stage.SIMPLIFY, start);
+        }
+        return simplified;
+    }
+
+    /**
+     * Simplifies a list of moves in the internal notation in place; see
+     * {@link MoveSequence#simplify}. Unrecognised moves are dropped.
+     */
+    public void simplifyMoves(List<String> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        byte[] codes = new byte[moves.size()];
+        int n = 0;
+        for (String move : moves) {
+            int code = Cube.parseMove(move);
+            if (code >= 0)
+                codes[n++] = (byte) code;
+        }
+        byte[] out = new byte[2 * n];
+        n = MoveSequence.simplify(codes, n, out);
+        moves.clear();
+        for (int i = 0; i < n; i++) {
+            moves.add(Cube.moveName(out[i]));
+        }
+        Metrics.stop(Metrics.Stage.SIMPLIFY, start);
+    }
+
+    // --- REAL CFOP LOGIC BELOW ---
+
+    // 1. Cross: Solve the U-face cross optimally from the precomputed distance table
+    public void solveCross() {
+        crossMoves.clear();
+        stepMovesCount[0] = 0;
+        if (isCrossSolved())
+            return;
+        // Already optimal, so there is nothing for simplifyMoves to do
+        MoveSequence cross = CrossSolver.solve(cube);
+        cross.applyTo(cube);
+        cross.addNamesTo(crossMoves);
+        stepMovesCount[0] = crossMoves.size();
+    }
+
+    // 2. F2L: Insert all four pairs from the case tables, in the cheapest slot order
+    public void solveF2L() {
+        f2lMoves.clear();
+        MoveSequence f2l = F2LSolver.solve(cube);
+        f2l.applyTo(cube);
+        // Cancels turns where one trigger ends on the face the next starts with
+        f2l.simplified().addNamesTo(f2lMoves);
+        stepMovesCount[1] = f2lMoves.size();
+    }
+
+    // 3. OLL: Orient the last (D) layer with the algorithm for its case
+    public void solveOLL() {
+        ollMoves.clear();
+        MoveSequence alg = ollAlg();
+        alg.applyTo(cube);
+        alg.simplified().addNamesTo(ollMoves);
+        stepMovesCount[2] = ollMoves.size();
+    }
+
+    // 4. PLL: Permute the last layer, including the final D adjustment
+    public void solvePLL() {
+        pllMoves.clear();
+        MoveSequence alg = pllAlg();
+        alg.applyTo(cube);
+        alg.simplified().addNamesTo(pllMoves);
+        stepMovesCount[3] = pllMoves.size();
+    }
+
+    // All four steps in turn; getStepMovesCount() then holds their lengths
+    public void solveCFOP() {
+        solveCross();
+        solveF2L();
+        solveOLL();
+        solvePLL();
+    }
+
+    // --- Helper methods for CFOP steps ---
+
+    // Both are empty when the step is done or the case is not recognised
+    // (the first two layers are not solved)
+    private MoveSequence ollAlg() {
+        MoveSequence alg = LastLayer.oll(cube);
+        return alg != null ? alg : MoveSequence.EMPTY;
+    }
+
+    private MoveSequence pllAlg() {
+        MoveSequence alg = LastLayer.pll(cube);
+        return alg != null ? alg : MoveSequence.EMPTY;
+    }
+
+    // --- Simulation ---
+    public static class SimulationResult {
+        long seed;
+        int bestMoves = 999, bestRun, worstMoves, worstRun;
+        String bestScramble, worstScramble;
+        int runs;
+        // Distributions over all runs. The step series hold the length of
+        // each CFOP step when the same state is solved with CFOP.
+        final StreamingStats moves = new StreamingStats();
+        final StreamingStats solveNanos = new StreamingStats();
+        final StreamingStats[] stepMoves = { new StreamingStats(), new StreamingStats(), new StreamingStats(),
+                new StreamingStats() };
+
+        double averageMoves() {
+            return moves.mean();
+        }
+
+        /** Distribution table and length histogram, laid out for a monospaced text area. */
+        String statsReport() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-14s %7s %7s %6s %6s %6s %6s%n", "", "Mean", "Stddev", "p50", "p90", "p99",
+                    "Max"));
+            appendRow(sb, "Solution", moves, 1);
+            String[] steps = { "CFOP cross", "CFOP F2L", "CFOP OLL", "CFOP PLL" };
+            for (int i = 0; i < steps.length; i++)
+                appendRow(sb, steps[i], stepMoves[i], 1);
+            appendRow(sb, "Solve ms", solveNanos, 1e6);
+            sb.append("Lengths: ").append(moves.histogram());
+            return sb.toString();
+        }
+
+        // Moves are whole numbers; other series are scaled down by unit
+        private static void appendRow(StringBuilder sb, String name, StreamingStats s, double unit) {
+            String p = unit == 1 ? "%6.0f" : "%6.1f";
+            sb.append(String.format("%-14s %7.2f %7.2f " + p + " " + p + " " + p + " " + p + "%n", name,
+                    s.mean() / unit, s.stddev() / unit, s.percentile(0.50) / unit, s.percentile(0.90) / unit,
+                    s.percentile(0.99) / unit, s.max() / unit));
+        }
+
+        // Folds in another worker's partial result. Ties keep the lower run
+        // number so the outcome matches a sequential pass.
+        void merge(SimulationResult other) {
+            if (other.runs == 0)
+                return;
+            if (other.bestMoves < bestMoves || (other.bestMoves == bestMoves && other.bestRun < bestRun)) {
+                bestMoves = other.bestMoves;
+                bestRun = other.bestRun;
+                bestScramble = other.bestScramble;
+            }
+            if (other.worstMoves > worstMoves || (other.worstMoves == worstMoves && other.worstRun < worstRun)) {
+                worstMoves = other.worstMoves;
+                worstRun = other.worstRun;
+                worstScramble = other.worstScramble;
+            }
+            runs += other.runs;
+            moves.merge(other.moves);
+            solveNanos.merge(other.solveNanos);
+            for (int i = 0; i < stepMoves.length; i++)
+                stepMoves[i].merge(other.stepMoves[i]);
+        }
+    }
+
+    // Runs are handed out to workers, and checkpointed, in blocks of this size
+    // unless the caller chooses another one, see simulation(SimulationProgress, int)
+    static final int SIMULATION_CHUNK = 64;
+
+    public SimulationResult simulation(int numSims) {
+        return simulation(numSims, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Uses a fresh master seed, reported in the result
+    public SimulationResult simulation(int numSims, int threads) {
+        return simulation(numSims, ThreadLocalRandom.current().nextLong(), threads, null);
+    }
+
+    /**
+     * Runs numSims scramble/solve cycles spread over the given number of
+     * worker threads. Run i scrambles from its own random stream derived
+     * from seed and i, so the result depends only on numSims and seed, not
+     * on the thread count, and any run can be replayed with
+     * {@link #scramble(long, int)}.
+     *
+     * Each worker owns its Cube and Solver and reports one block of runs at
+     * a time, so memory use does not grow with numSims. With a checkpoint
+     * file, progress is saved there periodically and when the simulation
+     * ends, and a simulation started with the same file, seed and numSims
+     * resumes from it, skipping the blocks already done.
+     *
+     * @throws IllegalArgumentException if checkpoint holds a different simulation
+     * @throws UncheckedIOException if the checkpoint cannot be read or written
+     */
+    public SimulationResult simulation(int numSims, long seed, int threads, Path checkpoint) {
+        return simulation(SimulationProgress.open(Math.max(0, numSims), seed, SIMULATION_CHUNK, checkpoint), threads);
+    }
+
+    /**
+     * Runs the blocks of progress not done yet. Another thread may watch
+     * progress meanwhile through {@link SimulationProgress#result()}.
+     *
+     * Interrupting the calling thread cancels the simulation: the workers
+     * are interrupted in turn, which ends their searches at once, and the
+     * blocks they had not finished are dropped. The result of the blocks
+     * done so far is then saved and returned, with the interrupt status of
+     * the calling thread set.
+     */
+    SimulationResult simulation(SimulationProgress progress, int threads) {
+        int workers = Math.max(1, Math.min(threads, progress.chunks() - progress.chunksDone()));
+        AtomicInteger nextChunk = new AtomicInteger();
+        boolean cancelled = false;
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "simulation-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> parts = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                parts.add(pool.submit(() -> simulationWorker(progress, nextChunk)));
+            }
+            for (Future<?> part : parts) {
+                part.get();
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        if (cancelled) {
+            // Let the workers drop out so the result no longer changes
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                // Cancelled twice; return what is there
+            }
+        }
+        // Saved before the interrupt status is restored, which would close the file channel
+        progress.save();
+        if (cancelled)
+            Thread.currentThread().interrupt();
+        return progress.result();
+    }
+
+    private static void simulationWorker(SimulationProgress progress, AtomicInteger nextChunk) {
+        Cube simCube = new Cube();
+        Solver simSolver = new Solver(simCube);
+        Cube cfopCube = new Cube();
+        Solver cfopSolver = new Solver(cfopCube);
+
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < progress.chunks()) {
+            if (progress.isDone(chunk))
+                continue;
+            SimulationResult local = new SimulationResult();
+            int start = chunk * progress.chunkSize() + 1;
+            int end = Math.min(progress.runs(), start + progress.chunkSize() - 1);
+            for (int i = start; i <= end; i++) {
+                // The scramble comes with its two-phase solution already found.
+                // Only that search counts as solve time, not drawing the state.
+                ScrambleSource.Scramble next = simSolver.scrambleRun(progress.seed(), i);
+                MoveSequence solution = next.solution;
+                local.solveNanos.add(next.searchNanos);
+                // A CFOP solve of the same state, for the step lengths
+                cfopCube.copyFrom(simCube);
+                cfopSolver.solveCFOP();
+                int[] steps = cfopSolver.getStepMovesCount();
+                for (int s = 0; s < steps.length; s++)
+                    local.stepMoves[s].add(steps[s]);
+
+                simSolver.applySolution(solution);
+                int currentLength = simSolver.getSolutionLength();
+
+                if (currentLength < local.bestMoves) {
+                    local.bestMoves = currentLength;
+                    local.bestRun = i;
+                    local.bestScramble = simSolver.getScramble();
+                }
+                if (currentLength > local.worstMoves) {
+                    local.worstMoves = currentLength;
+                    local.worstRun = i;
+                    local.worstScramble = simSolver.getScramble();
+                }
+                local.runs++;
+                local.moves.add(currentLength);
+            }
+            progress.complete(chunk, local);
+        }
+    }
+
+    private boolean isCrossSolved() {
+        return CrossSolver.isSolved(cube);
+    }
+
+    /**
+     * Two-phase solution of the cube, or the "Error n" string of the first
+     * problem found with it. A cached solution of a symmetric copy is
+     * reused when there is one.
+     */
+    public String kociembaSolve() {
+        CubeValidator.Problem problem = readCubies();
+        if (problem != null)
+            return problem.error();
+        // Symmetric, rotated and recolored copies of a solved state share one cache entry
+        Symmetry.Canonical key = Symmetry.canonicalize(cube);
+        MoveSequence cached = cache.get(key);
+        if (cached != null)
+            return cached.toString();
+
+        String solution = search.solution(cubies, MAX_DEPTH, TIMEOUT, false);
+        recordSearchTimes();
+        if (!solution.startsWith("Error"))
+            cache.put(key, MoveSequence.parse(solution));
+        return solution;
+    }
+
+    /**
+     * Deadline-driven variant of {@link #kociembaSolve()}. The first solution
+     * (at most ANYTIME_MAX_DEPTH moves) is reported through onImprovement
+     * within milliseconds; the search then keeps looking for shorter ones and
+     * reports each, returning the best when budgetMillis expires or no
+     * shorter two-phase solution exists.
+     */
+    public String kociembaSolve(long budgetMillis, Consumer<String> onImprovement) {
+        CubeValidator.Problem problem = readCubies();
+        if (problem != null)
+            return problem.error();
+        Symmetry.Canonical key = Symmetry.canonicalize(cube);
+        MoveSequence cached = cache.get(key);
+        if (cached != null) {
+            String solution = cached.toString();
+            if (onImprovement != null)
+                onImprovement.accept(solution);
+            return solution;
+        }
+
+        String solution = search.solutionWithin(cubies, ANYTIME_MAX_DEPTH, budgetMillis, onImprovement);
+        recordSearchTimes();
+        if (!solution.startsWith("Error"))
+            cache.put(key, MoveSequence.parse(solution));
+        return solution;
+    }
+
+    /**
+     * Variant of {@link #kociembaSolve(long, Consumer)} that races searches
+     * on six orientation and inverse versions of the cube, see
+     * {@link OrientationRace}, stopping early once a solution of at most
+     * targetLength moves is found. Gives shorter solutions for the same
+     * budget when there are cores to run the searches on.
+     */
+    public String raceSolve(long budgetMillis, int targetLength, Consumer<String> onImprovement) {
+        CubeValidator.Problem problem = CubeValidator.check(cube);
+        if (problem != null)
+            return problem.error();
+        Symmetry.Canonical key = Symmetry.canonicalize(cube);
+        MoveSequence cached = cache.get(key);
+        if (cached != null && cached.length() <= targetLength) {
+            String solution = cached.toString();
+            if (onImprovement != null)
+                onImprovement.accept(solution);
+            return solution;
+        }
+
+        String solution = OrientationRace.solve(cube, ANYTIME_MAX_DEPTH, budgetMillis, targetLength,
+                onImprovement == null ? null : moves -> onImprovement.accept(moves.toString()));
+        MoveSequence moves = solution.startsWith("Error") ? null : MoveSequence.parse(solution);
+        if (cached != null && (moves == null || moves.length() >= cached.length()))
+            return cached.toString();
+        if (moves != null)
+            cache.put(key, moves);
+        return solution;
+    }
+
+    /**
+     * Guaranteed-shortest solution of the current cube, from
+     * {@link OptimalSolver} on the given number of threads; onDepth, if not
+     * null, hears each search depth as it starts. The first call maps or
+     * builds the pattern databases, and hard states can take hours.
+     *
+     * @throws IllegalArgumentException if the cube cannot be solved
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public MoveSequence optimalSolve(int threads, IntConsumer onDepth) {
+        requireSolvable();
+        return OptimalSolver.solve(cube, threads, onDepth);
+    }
+
+    // Reads the cube into cubies for the search, without going through a
+    // facelet string; returns the problem if it cannot be solved
+    private CubeValidator.Problem readCubies() {
+        long start = System.nanoTime();
+        CubeValidator.Problem problem = CubeValidator.toCubies(cube, cubies);
+        Metrics.stop(Metrics.Stage.CUBIE_CONVERSION, start);
+        return problem;
+    }
+
+    private void recordSearchTimes() {
+        Metrics.record(Metrics.Stage.PHASE1, search.getPhase1Nanos());
+        Metrics.record(Metrics.Stage.PHASE2, search.getPhase2Nanos());
+    }
+
+    // Helper: Convert your cube state to Kociemba facelet string. Stickers are
+    // named after the face whose center shares their color, so rotated or
+    // recolored cubes convert correctly. Solving reads the cubies directly.
+    public String getFaceletStringFromCube(Cube cube) {
+        return faceletString(cube);
+    }
+
+    static String faceletString(Cube cube) {
+        int[] home = new int[6];
+        cube.getHomeFaces(home);
+        StringBuilder sb = new StringBuilder(54);
+
+        // Kociemba's face order is U, R, F, D, L, B
+        for (int face : new int[] { Cube.UP, Cube.RIGHT, Cube.FRONT, Cube.DOWN, Cube.LEFT, Cube.BACK })
+            for (int i = 0; i < 9; i++) sb.append(Cube.FACE_NAMES[home[cube.getFacelet(face * 9 + i)]]);
+        return sb.toString();
+    }
+
+    // Solves the cube using Kociemba's optimal algorithm; an unsolvable cube
+    // is rejected up front instead of silently left as it is
+    public void solve() {
+        requireSolvable();
+        applySolution(kociembaSolve());
+    }
+
+    /**
+     * Anytime solve: applies the shortest solution found within the time
+     * budget, reporting each improvement to onImprovement as it is found.
+     *
+     * @throws IllegalArgumentException if the cube cannot be solved
+     */
+    public void solve(long budgetMillis, Consumer<String> onImprovement) {
+        requireSolvable();
+        applySolution(kociembaSolve(budgetMillis, onImprovement));
+    }
+
+    private void requireSolvable() {
+        CubeValidator.Problem problem = CubeValidator.check(cube);
+        if (problem != null)
+            throw new IllegalArgumentException("The cube cannot be solved: " + problem.message);
+    }
+
+    // Applies a two-phase solution string and records it as the current
+    // solution; error codes leave the cube untouched
+    public void applySolution(String solution) {
+        applySolution(solution.startsWith("Error") ? MoveSequence.EMPTY : MoveSequence.parse(solution));
+    }
+
+    public void applySolution(MoveSequence moves) {
+        clearMoves();
+        moves.applyTo(cube);
+        appendMoves(moves);
+        // Optionally, update stepMovesCount if you want to show total moves in each CFOP step
+    }
+}
@@ -0,0 +1,178 @@
+package cubesolver;
+
+import java.util.Arrays;
+
+/**
+ * Constant-memory summary of a stream of non-negative values: count, mean,
+ * standard deviation, minimum, maximum and a histogram that answers
+ * percentiles. Values below 64 get a bucket each, so move counts are exact;
+ * larger values share 32 buckets per power of two, so latencies in
+ * nanoseconds are within about 3%. Summaries of two streams merge into the
+ * summary of both, so each worker keeps its own and the results are
+ * combined afterwards. The sums behind the moments are exact integers, so
+ * the outcome does not depend on the order of merging; the total of all
+ * values must fit in a long (292 years of nanoseconds). Not thread-safe.
+ */
+final class StreamingStats {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    // Values below this have a bucket each
+    private static final int EXACT = 2 * SUB;
+    private static final int MAX_BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+    private long count;
+    private long min = Long.MAX_VALUE, max;
+    private long sum;
+    // Sum of squares as an unsigned 128-bit number
+    private long squaresHigh, squaresLow;
+    // Grown on demand, so a stream of small values keeps a small array
+    private long[] buckets = new long[0];
+
+    static int bucket(long value) {
+        if (value < EXACT)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return EXACT + (shift - 1) * SUB + (int) ((value >>> shift) - SUB);
+    }
+
+    // Largest value that falls in bucket i
+    static long upperBound(int i) {
+        if (i < EXACT)
+            return i;
+        int shift = (i - EXACT) / SUB + 1;
+        long upper = ((SUB + (i - EXACT) % SUB + 1L) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    void add(long value) {
+        if (value < 0)
+            value = 0;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+        addSquares(Math.multiplyHigh(value, value), value * value);
+        int b = bucket(value);
+        if (b >= buckets.length)
+            buckets = Arrays.copyOf(buckets, Math.min(MAX_BUCKETS, Math.max(b + 1, 2 * buckets.length)));
+        buckets[b]++;
+    }
+
+    private void addSquares(long high, long low) {
+        long sumLow = squaresLow + low;
+        squaresHigh += high + (Long.compareUnsigned(sumLow, squaresLow) < 0 ? 1 : 0);
+        squaresLow = sumLow;
+    }
+
+    void merge(StreamingStats other) {
+        if (other.count == 0)
+            return;
+        count += other.count;
+        sum += other.sum;
+        addSquares(other.squaresHigh, other.squaresLow);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (other.buckets.length > buckets.length)
+            buckets = Arrays.copyOf(buckets, other.buckets.length);
+        for (int i = 0; i < other.buckets.length; i++)
+            buckets[i] += other.buckets[i];
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Sample standard deviation
+    double stddev() {
+        if (count < 2)
+            return 0;
+        double squares = squaresHigh * 0x1p64 + (squaresLow >>> 1) * 2.0 + (squaresLow & 1);
+        double m2 = squares - (double) sum * sum / count;
+        return Math.sqrt(Math.max(0, m2) / (count - 1));
+    }
+
+    long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    long max() {
+        return max;
+    }
+
+    // Number of values in the bucket holding value; exact below 64
+    long frequency(long value) {
+        int b = bucket(Math.max(0, value));
+        return b < buckets.length ? buckets[b] : 0;
+    }
+
+    // Upper edge of the bucket holding the q-quantile, capped at the maximum
+    long percentile(double q) {
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank)
+                return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    /** The non-empty buckets as "value:count" pairs, value being the bucket's upper edge. */
+    String histogram() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0)
+                continue;
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append(Math.min(upperBound(i), max)).append(':').append(buckets[i]);
+        }
+        return sb.toString();
+    }
+
+    /** Text form for checkpoints; {@link #decode} restores an equal summary. */
+    String encode() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(count).append(',').append(min).append(',').append(max).append(',').append(sum).append(',')
+                .append(squaresHigh).append(',').append(squaresLow).append(';');
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != 0)
+                sb.append(' ').append(i).append(':').append(buckets[i]);
+        }
+        return sb.toString();
+    }
+
+    /** @throws IllegalArgumentException if text was not written by {@link #encode} */
+    static StreamingStats decode(String text) {
+        StreamingStats stats = new StreamingStats();
+        try {
+            int semicolon = text.indexOf(';');
+            String[] fields = text.substring(0, semicolon).split(",");
+            stats.count = Long.parseLong(fields[0]);
+            stats.min = Long.parseLong(fields[1]);
+            stats.max = Long.parseLong(fields[2]);
+            stats.sum = Long.parseLong(fields[3]);
+            stats.squaresHigh = Long.parseLong(fields[4]);
+            stats.squaresLow = Long.parseLong(fields[5]);
+            for (String entry : text.substring(semicolon + 1).trim().split(" ")) {
+                if (entry.isEmpty())
+                    continue;
+                int colon = entry.indexOf(':');
+                int i = Integer.parseInt(entry.substring(0, colon));
+                if (i >= stats.buckets.length)
+                    stats.buckets = Arrays.copyOf(stats.buckets, i + 1);
+                stats.buckets[i] = Long.parseLong(entry.substring(colon + 1));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed statistics: " + text, e);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,214 @@
+package cubesolver;
+
+import java.util.Arrays;
+
+/**
+ * The 48 symmetries of the cube (24 rotations, each optionally combined with
+ * a mirror image). States are compared with their stickers read relative to
+ * the centers, which also makes recolored and reoriented cubes equivalent.
+ */
+final class Symmetry {
+    static final int COUNT = 48;
+
+    // FACELET_SRC[s][j]: facelet that symmetry s moves onto facelet j
+    private static final byte[][] FACELET_SRC = new byte[COUNT][54];
+    // FACE_MAP[s][f]: face that face f is moved onto by symmetry s
+    private static final int[][] FACE_MAP = new int[COUNT][6];
+    private static final boolean[] MIRROR = new boolean[COUNT];
+    private static final int[] INVERSE = new int[COUNT];
+    // MOVE_MAP[s][code]: move code of the conjugated move
+    private static final byte[][] MOVE_MAP = new byte[COUNT][Cube.ALL_MOVES];
+
+    static {
+        // Every signed permutation matrix of the three axes
+        int[][] axisPerms = { { 0, 1, 2 }, { 0, 2, 1 }, { 1, 0, 2 }, { 1, 2, 0 }, { 2, 0, 1 }, { 2, 1, 0 } };
+        int[][][] matrices = new int[COUNT][][];
+        int s = 0;
+        for (int[] perm : axisPerms) {
+            for (int signs = 0; signs < 8; signs++) {
+                int[][] m = new int[3][3];
+                for (int row = 0; row < 3; row++) {
+                    m[row][perm[row]] = (signs >> row & 1) == 0 ? 1 : -1;
+                }
+                matrices[s++] = m;
+            }
+        }
+        for (s = 0; s < COUNT; s++) {
+            int[][] m = matrices[s];
+            MIRROR[s] = determinant(m) < 0;
+            for (int i = 0; i < 54; i++) {
+                FACELET_SRC[s][find(transform(m, Cube.position(i)))] = (byte) i;
+            }
+            for (int f = 0; f < 6; f++) {
+                int[] n = transform(m, Cube.FACE_NORMALS[f]);
+                for (int g = 0; g < 6; g++) {
+                    if (Arrays.equals(Cube.FACE_NORMALS[g], n))
+                        FACE_MAP[s][f] = g;
+                }
+            }
+        }
+        for (s = 0; s < COUNT; s++) {
+            for (int t = 0; t < COUNT; t++) {
+                int[][] product = multiply(matrices[s], matrices[t]);
+                if (Arrays.deepEquals(product, new int[][] { { 1, 0, 0 }, { 0, 1, 0 }, { 0, 0, 1 } }))
+                    INVERSE[s] = t;
+            }
+            // Rotations x, y and z turn like the R, U and F faces, slices M, E
+            // and S like L, D and F, and wide turns like their faces
+            int[] axisFace = { Cube.UP, Cube.FRONT, Cube.RIGHT, Cube.LEFT, Cube.DOWN, Cube.BACK, Cube.RIGHT,
+                    Cube.UP, Cube.FRONT, Cube.LEFT, Cube.DOWN, Cube.FRONT, Cube.UP, Cube.FRONT, Cube.RIGHT,
+                    Cube.LEFT, Cube.DOWN, Cube.BACK };
+            for (int code = 0; code < Cube.ALL_MOVES; code++) {
+                int axis = code / 3, power = code % 3;
+                int face = FACE_MAP[s][axisFace[axis]];
+                int newAxis;
+                boolean invert = MIRROR[s];
+                if (axis < 6 || axis >= Cube.WIDE_MOVES / 3) {
+                    newAxis = axis < 6 ? face : Cube.WIDE_MOVES / 3 + face;
+                } else {
+                    String axisFaces = axis < 9 ? "RUF" : "LDF";
+                    int r = axisFaces.indexOf(Cube.FACE_NAMES[face]);
+                    if (r < 0) {
+                        // Mapped onto the opposite face of a rotation or slice axis
+                        r = axisFaces.indexOf(Cube.FACE_NAMES[opposite(face)]);
+                        invert = !invert;
+                    }
+                    newAxis = axis - axis % 3 + r;
+                }
+                int newPower = invert && power != 1 ? 2 - power : power;
+                MOVE_MAP[s][code] = (byte) (3 * newAxis + newPower);
+            }
+        }
+    }
+
+    static int opposite(int face) {
+        int[] n = Cube.FACE_NORMALS[face];
+        for (int g = 0; g < 6; g++) {
+            int[] o = Cube.FACE_NORMALS[g];
+            if (o[0] == -n[0] && o[1] == -n[1] && o[2] == -n[2])
+                return g;
+        }
+        throw new IllegalStateException();
+    }
+
+    private static int[] transform(int[][] m, int[] v) {
+        int[] r = new int[3];
+        for (int row = 0; row < 3; row++) {
+            r[row] = m[row][0] * v[0] + m[row][1] * v[1] + m[row][2] * v[2];
+        }
+        return r;
+    }
+
+    private static int[][] multiply(int[][] a, int[][] b) {
+        int[][] r = new int[3][3];
+        for (int i = 0; i < 3; i++)
+            for (int j = 0; j < 3; j++)
+                for (int k = 0; k < 3; k++)
+                    r[i][j] += a[i][k] * b[k][j];
+        return r;
+    }
+
+    private static int determinant(int[][] m) {
+        return m[0][0] * (m[1][1] * m[2][2] - m[1][2] * m[2][1])
+                - m[0][1] * (m[1][0] * m[2][2] - m[1][2] * m[2][0])
+                + m[0][2] * (m[1][0] * m[2][1] - m[1][1] * m[2][0]);
+    }
+
+    private static int find(int[] position) {
+        for (int j = 0; j < 54; j++) {
+            if (Arrays.equals(Cube.position(j), position))
+                return j;
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * A state in canonical form: the smallest packing, over all 48
+     * symmetries, of the center-relative sticker labels, together with the
+     * symmetry that produced it.
+     */
+    static final class Canonical {
+        final long a, b, c;
+        final int symmetry;
+
+        Canonical(long a, long b, long c, int symmetry) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.symmetry = symmetry;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Canonical))
+                return false;
+            Canonical k = (Canonical) o;
+            return a == k.a && b == k.b && c == k.c;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(a * 31 + b) * 31 + Long.hashCode(c);
+        }
+    }
+
+    static Canonical canonicalize(Cube cube) {
+        int[] home = new int[6];
+        cube.getHomeFaces(home);
+        byte[] labels = new byte[54];
+        for (int i = 0; i < 54; i++) {
+            labels[i] = (byte) home[cube.getFacelet(i)];
+        }
+
+        long bestA = Long.MAX_VALUE, bestB = 0, bestC = 0;
+        int best = 0;
+        long[] packed = new long[3];
+        for (int s = 0; s < COUNT; s++) {
+            byte[] src = FACELET_SRC[s];
+            int[] faceMap = FACE_MAP[s];
+            // The 48 non-center stickers, 3 bits each, 16 per word
+            int word = 0, count = 0;
+            long acc = 0;
+            boolean worse = false;
+            for (int j = 0; j < 54 && !worse; j++) {
+                if (j % 9 == 4)
+                    continue;
+                acc = acc << 3 | faceMap[labels[src[j]]];
+                if (++count == 16) {
+                    packed[word] = acc;
+                    // Lexicographic comparison against the best so far, word by word
+                    if (word == 0 && acc > bestA)
+                        worse = true;
+                    else if (word == 1 && packed[0] == bestA && acc > bestB)
+                        worse = true;
+                    word++;
+                    count = 0;
+                    acc = 0;
+                }
+            }
+            if (worse)
+                continue;
+            if (packed[0] < bestA || (packed[0] == bestA && (packed[1] < bestB
+                    || (packed[1] == bestB && packed[2] < bestC)))) {
+                bestA = packed[0];
+                bestB = packed[1];
+                bestC = packed[2];
+                best = s;
+            }
+        }
+        return new Canonical(bestA, bestB, bestC, best);
+    }
+
+    /** The move sequence conjugated by symmetry s (faces mapped, mirror images reversing direction). */
+    static byte[] conjugate(byte[] codes, int s) {
+        byte[] result = new byte[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            result[i] = MOVE_MAP[s][codes[i]];
+        }
+        return result;
+    }
+
+    static int inverse(int s) {
+        return INVERSE[s];
+    }
+}
@@ -0,0 +1,110 @@
+package org.kociemba.twophase;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+/**
+ * Read-only view of the {@link CoordCube} move and pruning tables backed by a memory-mapped file.
+ * <p>
+ * The first process to need the tables lets CoordCube build them, writes them to a versioned and CRC32-checksummed
+ * binary file in native byte order and maps that file. Later processes map the existing file directly without touching CoordCube, so
+ * startup skips the table generation and all JVMs on a host share the same pages through the OS page cache.
+ * <p>
+ * The file location is taken from the system property {@code twophase.tables} and defaults to
+ * {@code ~/.cubesolver/twophase-tables-v1.bin}. If the file cannot be written the tables are kept on the heap.
+ */
+final class CoordTables {
+
+	private static final int MAGIC = 0x4B545054; // "KTPT"
+	private static final int VERSION = 1;
+
+	// Table layout, in file order: element size in bytes and number of elements
+	private static final int[] ELEMENT_SIZE = { 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 1, 1, 1 };
+	private static final int[] LENGTH = {
+			CoordCube.N_TWIST * CoordCube.N_MOVE, // twistMove
+			CoordCube.N_FLIP * CoordCube.N_MOVE, // flipMove
+			CoordCube.N_PARITY * CoordCube.N_MOVE, // parityMove
+			CoordCube.N_FRtoBR * CoordCube.N_MOVE, // FRtoBR_Move
+			CoordCube.N_URFtoDLF * CoordCube.N_MOVE, // URFtoDLF_Move
+			CoordCube.N_URtoDF * CoordCube.N_MOVE, // URtoDF_Move
+			CoordCube.N_URtoUL * CoordCube.N_MOVE, // URtoUL_Move
+			CoordCube.N_UBtoDF * CoordCube.N_MOVE, // UBtoDF_Move
+			336 * 336, // MergeURtoULandUBtoDF
+			CoordCube.N_SLICE2 * CoordCube.N_URFtoDLF * CoordCube.N_PARITY / 2, // Slice_URFtoDLF_Parity_Prun
+			CoordCube.N_SLICE2 * CoordCube.N_URtoDF * CoordCube.N_PARITY / 2, // Slice_URtoDF_Parity_Prun
+			CoordCube.N_SLICE1 * CoordCube.N_TWIST / 2 + 1, // Slice_Twist_Prun
+			CoordCube.N_SLICE1 * CoordCube.N_FLIP / 2 }; // Slice_Flip_Prun
+
+	private static final TableFile FILE = new TableFile(MAGIC, VERSION, LENGTH, ELEMENT_SIZE);
+
+	// Move tables are indexed as [coordinate * N_MOVE + move], the merge table as [URtoUL * 336 + UBtoDF]
+	final ShortBuffer twistMove, flipMove, parityMove, FRtoBR_Move, URFtoDLF_Move, URtoDF_Move, URtoUL_Move,
+			UBtoDF_Move, MergeURtoULandUBtoDF;
+	final ByteBuffer Slice_URFtoDLF_Parity_Prun, Slice_URtoDF_Parity_Prun, Slice_Twist_Prun, Slice_Flip_Prun;
+
+	private CoordTables(ByteBuffer image) {
+		ByteBuffer[] tables = FILE.tables(image);
+		twistMove = tables[0].asShortBuffer();
+		flipMove = tables[1].asShortBuffer();
+		parityMove = tables[2].asShortBuffer();
+		FRtoBR_Move = tables[3].asShortBuffer();
+		URFtoDLF_Move = tables[4].asShortBuffer();
+		URtoDF_Move = tables[5].asShortBuffer();
+		URtoUL_Move = tables[6].asShortBuffer();
+		UBtoDF_Move = tables[7].asShortBuffer();
+		MergeURtoULandUBtoDF = tables[8].asShortBuffer();
+		Slice_URFtoDLF_Parity_Prun = tables[9];
+		Slice_URtoDF_Parity_Prun = tables[10];
+		Slice_Twist_Prun = tables[11];
+		Slice_Flip_Prun = tables[12];
+	}
+
+	private static class Holder {
+		static final CoordTables INSTANCE = open(Paths.get(System.getProperty("twophase.tables",
+				System.getProperty("user.home") + "/.cubesolver/twophase-tables-v" + VERSION + ".bin")));
+	}
+
+	/** The shared tables, mapped (or generated) on first use. */
+	static CoordTables get() {
+		return Holder.INSTANCE;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Map the table file if it is valid, otherwise generate it from CoordCube and replace it
+	static CoordTables open(Path file) {
+		return new CoordTables(FILE.open(file, CoordTables::generate, "two-phase tables"));
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Build the file image from the CoordCube tables. This runs the CoordCube static initializers.
+	private static ByteBuffer generate() {
+		ByteBuffer image = FILE.newImage();
+
+		short[][][] moveTables = { CoordCube.twistMove, CoordCube.flipMove, CoordCube.parityMove,
+				CoordCube.FRtoBR_Move, CoordCube.URFtoDLF_Move, CoordCube.URtoDF_Move, CoordCube.URtoUL_Move,
+				CoordCube.UBtoDF_Move, CoordCube.MergeURtoULandUBtoDF };
+		for (short[][] table : moveTables)
+			for (short[] row : table)
+				for (short value : row)
+					image.putShort(value);
+		image.put(CoordCube.Slice_URFtoDLF_Parity_Prun);
+		image.put(CoordCube.Slice_URtoDF_Parity_Prun);
+		image.put(CoordCube.Slice_Twist_Prun);
+		image.put(CoordCube.Slice_Flip_Prun);
+
+		FILE.seal(image);
+		return image;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Extract pruning value, two values are stored in one byte (see CoordCube.getPruning)
+	static int getPruning(ByteBuffer table, int index) {
+		if ((index & 1) == 0)
+			return table.get(index >> 1) & 0x0f;
+		else
+			return (table.get(index >> 1) & 0xf0) >>> 4;
+	}
+}
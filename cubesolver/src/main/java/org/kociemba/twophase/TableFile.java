@@ -0,0 +1,150 @@
+package org.kociemba.twophase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+/**
+ * Layout and life cycle of a file of precomputed tables that is memory-mapped read-only.
+ * <p>
+ * The file starts with a header of the magic number, the format version, the table count, the length of each table
+ * and the CRC32 of everything after the header, all in native byte order. The tables follow back to back.
+ * {@link #open} maps an existing file if its header and checksum match this layout, and otherwise builds the image,
+ * replaces the file with it and maps the new file. Used for the two-phase tables ({@link CoordTables}) and the
+ * optimal solver's pattern databases.
+ */
+public final class TableFile {
+
+	private final int magic, version;
+	private final int[] length, elementSize;
+	private final int headerSize, size;
+
+	/**
+	 * @param length
+	 *          number of elements of each table, in file order
+	 * @param elementSize
+	 *          size in bytes of the elements of each table
+	 */
+	public TableFile(int magic, int version, int[] length, int[] elementSize) {
+		this.magic = magic;
+		this.version = version;
+		this.length = length.clone();
+		this.elementSize = elementSize.clone();
+		// magic, version, table count, one length per table and the payload CRC32
+		headerSize = 12 + 4 * length.length + 8;
+		int size = headerSize;
+		for (int i = 0; i < length.length; i++)
+			size += elementSize[i] * length[i];
+		this.size = size;
+	}
+
+	/** A heap image with the header written, positioned at the first table for the caller to fill in. */
+	public ByteBuffer newImage() {
+		ByteBuffer image = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+		image.putInt(magic).putInt(version).putInt(length.length);
+		for (int l : length)
+			image.putInt(l);
+		image.putLong(0);
+		return image;
+	}
+
+	/** Stores the checksum of a filled image and rewinds it. */
+	public void seal(ByteBuffer image) {
+		image.putLong(headerSize - 8, checksum(image));
+		image.clear();
+	}
+
+	/** The tables of an image in file order, each a slice in native byte order. */
+	public ByteBuffer[] tables(ByteBuffer image) {
+		ByteBuffer[] tables = new ByteBuffer[length.length];
+		int offset = headerSize;
+		for (int i = 0; i < length.length; i++) {
+			int bytes = elementSize[i] * length[i];
+			ByteBuffer b = image.duplicate();
+			b.position(offset);
+			b.limit(offset + bytes);
+			tables[i] = b.slice().order(ByteOrder.nativeOrder());
+			offset += bytes;
+		}
+		return tables;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	/**
+	 * Maps file if it holds valid tables, otherwise builds a sealed image, replaces the file with it and maps that. If
+	 * the file cannot be written the built image is returned, so the tables stay on the heap.
+	 */
+	public ByteBuffer open(Path file, Supplier<ByteBuffer> build, String description) {
+		ByteBuffer mapped = map(file);
+		if (mapped != null && isValid(mapped))
+			return mapped;
+
+		ByteBuffer image = build.get();
+		try {
+			write(file, image);
+			mapped = map(file);
+			if (mapped != null && isValid(mapped))
+				return mapped;
+		} catch (IOException e) {
+			System.err.println("Could not persist " + description + " to " + file + ": " + e.getMessage());
+		}
+		return image;
+	}
+
+	private static ByteBuffer map(Path file) {
+		if (!Files.isRegularFile(file))
+			return null;
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.nativeOrder());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private boolean isValid(ByteBuffer image) {
+		if (image.capacity() != size || image.getInt(0) != magic || image.getInt(4) != version
+				|| image.getInt(8) != length.length)
+			return false;
+		for (int i = 0; i < length.length; i++)
+			if (image.getInt(12 + 4 * i) != length[i])
+				return false;
+		return image.getLong(headerSize - 8) == checksum(image);
+	}
+
+	private long checksum(ByteBuffer image) {
+		ByteBuffer payload = image.duplicate();
+		payload.position(headerSize);
+		payload.limit(size);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return crc.getValue();
+	}
+
+	// Write to a temporary file next to the target and move it into place, so concurrent writers never expose a
+	// partial file
+	private static void write(Path file, ByteBuffer image) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+				ByteBuffer src = image.duplicate();
+				src.clear();
+				while (src.hasRemaining())
+					ch.write(src);
+				ch.force(true);
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+}
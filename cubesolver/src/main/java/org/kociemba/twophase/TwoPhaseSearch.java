@@ -0,0 +1,493 @@
+package org.kociemba.twophase;
+
+import java.util.random.RandomGenerator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+/**
+ * Re-entrant implementation of the Two-Phase-Algorithm.
+ * <p>
+ * Works exactly like {@link Search#solution(String, int, long, boolean)}, but keeps the IDA* stack in instance
+ * fields instead of static ones. The move and pruning tables are read-only and shared by all instances through
+ * {@link CoordTables}, so several threads can each solve with their own TwoPhaseSearch at the same time. A single
+ * instance must not be used by two threads at once.
+ */
+public class TwoPhaseSearch {
+
+	/**
+	 * Length of a cube in the cubie layout the byte[] methods take, which skips the facelet string entirely. Offset 0
+	 * holds the {@link Corner} ordinal at each of the 8 corner positions, {@link #CORNER_TWIST} their twists (0-2),
+	 * {@link #EDGE_PERM} the {@link Edge} ordinal at each of the 12 edge positions and {@link #EDGE_FLIP} their flips
+	 * (0-1), all in the position order of the enums. Twists and flips are as in {@link FaceCube#toCubieCube()}.
+	 */
+	public static final int CUBIES = 40;
+	public static final int CORNER_TWIST = 8, EDGE_PERM = 16, EDGE_FLIP = 28;
+
+	private static final Corner[] CORNERS = Corner.values();
+	private static final Edge[] EDGES = Edge.values();
+
+	private final int[] ax = new int[31]; // The axis of the move
+	private final int[] po = new int[31]; // The power of the move
+
+	private final int[] flip = new int[31]; // phase1 coordinates
+	private final int[] twist = new int[31];
+	private final int[] slice = new int[31];
+
+	private final int[] parity = new int[31]; // phase2 coordinates
+	private final int[] URFtoDLF = new int[31];
+	private final int[] FRtoBR = new int[31];
+	private final int[] URtoUL = new int[31];
+	private final int[] UBtoDF = new int[31];
+	private final int[] URtoDF = new int[31];
+
+	private final int[] minDistPhase1 = new int[31]; // IDA* distance do goal estimations
+	private final int[] minDistPhase2 = new int[31];
+
+	private CoordTables t;
+
+	private long phase1Nanos, phase2Nanos; // time spent in each phase by the last call
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	/**
+	 * Maps (or on the very first run generates and persists) the shared move and pruning tables. Solving does this
+	 * lazily; calling it up front moves the cost off the first solve.
+	 */
+	public static void loadTables() {
+		CoordTables.get();
+	}
+
+	/**
+	 * Time the last solve spent in phase1, including input checks, in nanoseconds.
+	 */
+	public long getPhase1Nanos() {
+		return phase1Nanos;
+	}
+
+	/**
+	 * Time the last solve spent in phase2 searches, in nanoseconds.
+	 */
+	public long getPhase2Nanos() {
+		return phase2Nanos;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	/**
+	 * Generates a random cube, like {@link Tools#randomCube()}: each reachable state has the same probability. The
+	 * corner and edge permutations and orientations are drawn from gen, so a seeded generator gives a reproducible
+	 * sequence of cubes. Any generator will do, e.g. a {@link java.util.SplittableRandom} stream per cube.
+	 * 
+	 * @return the cube in the facelet representation, see {@link Facelet}
+	 */
+	public static String randomCube(RandomGenerator gen) {
+		return random(gen).toFaceCube().to_String();
+	}
+
+	/**
+	 * {@link #randomCube(RandomGenerator)} in the {@link #CUBIES} layout; the same generator state gives the same cube.
+	 */
+	public static byte[] randomCubies(RandomGenerator gen) {
+		return toCubies(random(gen));
+	}
+
+	private static CubieCube random(RandomGenerator gen) {
+		CubieCube cc = new CubieCube();
+		cc.setFlip((short) gen.nextInt(CoordCube.N_FLIP));
+		cc.setTwist((short) gen.nextInt(CoordCube.N_TWIST));
+		// Corner and edge permutations must have the same parity
+		do {
+			cc.setURFtoDLB(gen.nextInt(CoordCube.N_URFtoDLB));
+			cc.setURtoBR(gen.nextInt(CoordCube.N_URtoBR));
+		} while ((cc.edgeParity() ^ cc.cornerParity()) != 0);
+		return cc;
+	}
+
+	/**
+	 * Reads a facelet string into the {@link #CUBIES} layout.
+	 * 
+	 * @return the cubies, or null if facelets is not 54 colors with nine of each
+	 */
+	public static byte[] cubies(String facelets) {
+		int[] count = new int[6];
+		try {
+			for (int i = 0; i < 54; i++)
+				count[Color.valueOf(facelets.substring(i, i + 1)).ordinal()]++;
+		} catch (Exception e) {
+			return null;
+		}
+		for (int i = 0; i < 6; i++)
+			if (count[i] != 9)
+				return null;
+
+		return toCubies(new FaceCube(facelets).toCubieCube());
+	}
+
+	private static byte[] toCubies(CubieCube cc) {
+		byte[] cubies = new byte[CUBIES];
+		for (int i = 0; i < 8; i++) {
+			cubies[i] = (byte) cc.cp[i].ordinal();
+			cubies[CORNER_TWIST + i] = cc.co[i];
+		}
+		for (int i = 0; i < 12; i++) {
+			cubies[EDGE_PERM + i] = (byte) cc.ep[i].ordinal();
+			cubies[EDGE_FLIP + i] = cc.eo[i];
+		}
+		return cubies;
+	}
+
+	/**
+	 * The inverse of a cube in the {@link #CUBIES} layout: the state that the moves solving cubies produce from the
+	 * solved cube. An inverse solution read backwards, with every turn inverted, solves the original cube. cubies must
+	 * hold a solvable cube.
+	 */
+	public static byte[] inverse(byte[] cubies) {
+		byte[] inv = new byte[CUBIES];
+		for (int i = 0; i < 8; i++) {
+			inv[cubies[i]] = (byte) i;
+			inv[CORNER_TWIST + cubies[i]] = (byte) ((3 - cubies[CORNER_TWIST + i]) % 3);
+		}
+		for (int i = 0; i < 12; i++) {
+			inv[EDGE_PERM + cubies[EDGE_PERM + i]] = (byte) i;
+			inv[EDGE_FLIP + cubies[EDGE_PERM + i]] = cubies[EDGE_FLIP + i];
+		}
+		return inv;
+	}
+
+	// The CubieCube of a cubie array, or null if it is malformed
+	private static CubieCube toCubieCube(byte[] cubies) {
+		if (cubies == null || cubies.length != CUBIES)
+			return null;
+		CubieCube cc = new CubieCube();
+		for (int i = 0; i < 8; i++) {
+			if (cubies[i] < 0 || cubies[i] >= 8 || cubies[CORNER_TWIST + i] < 0 || cubies[CORNER_TWIST + i] >= 3)
+				return null;
+			cc.cp[i] = CORNERS[cubies[i]];
+			cc.co[i] = cubies[CORNER_TWIST + i];
+		}
+		for (int i = 0; i < 12; i++) {
+			if (cubies[EDGE_PERM + i] < 0 || cubies[EDGE_PERM + i] >= 12 || cubies[EDGE_FLIP + i] < 0
+					|| cubies[EDGE_FLIP + i] >= 2)
+				return null;
+			cc.ep[i] = EDGES[cubies[EDGE_PERM + i]];
+			cc.eo[i] = cubies[EDGE_FLIP + i];
+		}
+		return cc;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// generate the solution string from the array data, optionally with a separator between phase1 and phase2 moves
+	private String solutionToString(int length, int depthPhase1) {
+		StringBuilder s = new StringBuilder(length * 3 + 2);
+		for (int i = 0; i < length; i++) {
+			s.append("URFDLB".charAt(ax[i]));
+			switch (po[i]) {
+			case 1:
+				s.append(' ');
+				break;
+			case 2:
+				s.append("2 ");
+				break;
+			case 3:
+				s.append("' ");
+				break;
+			}
+			if (i == depthPhase1 - 1)
+				s.append(". ");
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Computes the solver string for a given cube. Parameters and error codes are the same as for
+	 * {@link Search#solution(String, int, long, boolean)}. Interrupting the calling thread ends the search as if the
+	 * time were up, with "Error 8"; the interrupt status is left set.
+	 */
+	public String solution(String facelets, int maxDepth, long timeOut, boolean useSeparator) {
+		return solution(cubies(facelets), maxDepth, timeOut, useSeparator);
+	}
+
+	/**
+	 * {@link #solution(String, int, long, boolean)} for a cube in the {@link #CUBIES} layout; a malformed array gives
+	 * "Error 1".
+	 */
+	public String solution(byte[] cubies, int maxDepth, long timeOut, boolean useSeparator) {
+		return search(cubies, maxDepth, System.nanoTime() + (timeOut << 10) * 1000000L, useSeparator, null, null, 0);
+	}
+
+	/**
+	 * Anytime variant of {@link #solution(String, int, long, boolean)}. The first solution within maxDepth is
+	 * reported as soon as it is found; the search then continues for strictly shorter ones until either no shorter
+	 * two-phase solution exists or the time budget runs out. Every improvement is passed to onSolution.
+	 * 
+	 * @param budgetMillis
+	 *          hard limit on the computing time in milliseconds
+	 * @param onSolution
+	 *          receives each new best solution string, in order of decreasing length; may be null
+	 * @return the shortest solution found, "Error 8" if none was found within the budget or before the calling thread
+	 *         was interrupted, or one of the other error codes of {@link Search#solution(String, int, long, boolean)}
+	 */
+	public String solutionWithin(String facelets, int maxDepth, long budgetMillis, Consumer<String> onSolution) {
+		return solutionWithin(cubies(facelets), maxDepth, budgetMillis, onSolution);
+	}
+
+	/**
+	 * {@link #solutionWithin(String, int, long, Consumer)} for a cube in the {@link #CUBIES} layout.
+	 */
+	public String solutionWithin(byte[] cubies, int maxDepth, long budgetMillis, Consumer<String> onSolution) {
+		Consumer<String> listener = onSolution != null ? onSolution : sol -> {
+		};
+		return search(cubies, maxDepth, System.nanoTime() + budgetMillis * 1000000L, false, listener, null, 0);
+	}
+
+	/**
+	 * Variant of {@link #solutionWithin(byte[], int, long, Consumer)} for several searches racing on versions of the
+	 * same cube. bound holds the length of the shortest solution any of them has found so far; this search only
+	 * looks for solutions shorter than that, lowers bound with each one it finds, and picks up the improvements of
+	 * the others as it goes. It ends early, like the others, once bound is at most target.
+	 * 
+	 * @param bound
+	 *          shared by all racing searches; start it at one more than the longest acceptable solution
+	 * @return the shortest solution this search found, or "Error 8" if it found none shorter than the others did
+	 */
+	public String solutionBelow(byte[] cubies, AtomicInteger bound, int target, long budgetMillis,
+			Consumer<String> onSolution) {
+		Consumer<String> listener = onSolution != null ? onSolution : sol -> {
+		};
+		return search(cubies, bound.get() - 1, System.nanoTime() + budgetMillis * 1000000L, false, listener, bound,
+				target);
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Splits the wall time of one search between the two phases
+	private String search(byte[] cubies, int maxDepth, long deadline, boolean useSeparator,
+			Consumer<String> listener, AtomicInteger bound, int target) {
+		long start = System.nanoTime();
+		phase2Nanos = 0;
+		String result = searchLoop(cubies, maxDepth, deadline, useSeparator, listener, bound, target);
+		phase1Nanos = System.nanoTime() - start - phase2Nanos;
+		return result;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Without a listener the first solution is returned. With one, each solution is reported and the search goes on
+	// with maxDepth lowered below it, returning the best one when the tree is exhausted or the deadline passes.
+	// A shared bound, if given, is folded into maxDepth at every check of the deadline.
+	private String searchLoop(byte[] cubies, int maxDepth, long deadline, boolean useSeparator,
+			Consumer<String> listener, AtomicInteger bound, int target) {
+		int s;
+		String best = null;
+
+		// +++++++++++++++++++++check for wrong input +++++++++++++++++++++++++++++
+		CubieCube cc = toCubieCube(cubies);
+		if (cc == null)
+			return "Error 1";
+		if ((s = cc.verify()) != 0)
+			return "Error " + Math.abs(s);
+
+		// +++++++++++++++++++++++ initialization +++++++++++++++++++++++++++++++++
+		// The coordinates are read straight from the CubieCube; creating a CoordCube would run its table generation
+		if (t == null)
+			t = CoordTables.get();
+
+		po[0] = 0;
+		ax[0] = 0;
+		flip[0] = cc.getFlip();
+		twist[0] = cc.getTwist();
+		parity[0] = cc.cornerParity();
+		FRtoBR[0] = cc.getFRtoBR();
+		slice[0] = FRtoBR[0] / 24;
+		URFtoDLF[0] = cc.getURFtoDLF();
+		URtoUL[0] = cc.getURtoUL();
+		UBtoDF[0] = cc.getUBtoDF();
+
+		minDistPhase1[1] = 1;// else failure for depth=1, n=0
+		int mv = 0, n = 0;
+		boolean busy = false;
+		int depthPhase1 = 1;
+
+		// +++++++++++++++++++ Main loop ++++++++++++++++++++++++++++++++++++++++++
+		do {
+			do {
+				if ((depthPhase1 - n > minDistPhase1[n + 1]) && !busy) {
+
+					if (ax[n] == 0 || ax[n] == 3)// Initialize next move
+						ax[++n] = 1;
+					else
+						ax[++n] = 0;
+					po[n] = 1;
+				} else if (++po[n] > 3) {
+					do {// increment axis
+						if (++ax[n] > 5) {
+
+							if (System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted())
+								return best != null ? best : "Error 8";
+							if (bound != null) {
+								int b = bound.get();
+								if (b <= target)
+									return best != null ? best : "Error 8";
+								maxDepth = Math.min(maxDepth, b - 1);
+							}
+
+							if (n == 0) {
+								if (depthPhase1 >= maxDepth)
+									return best != null ? best : "Error 7";
+								else {
+									depthPhase1++;
+									ax[n] = 0;
+									po[n] = 1;
+									busy = false;
+									break;
+								}
+							} else {
+								n--;
+								busy = true;
+								break;
+							}
+
+						} else {
+							po[n] = 1;
+							busy = false;
+						}
+					} while (n != 0 && (ax[n - 1] == ax[n] || ax[n - 1] - 3 == ax[n]));
+				} else
+					busy = false;
+			} while (busy);
+
+			// +++++++++++++ compute new coordinates and new minDistPhase1 ++++++++++
+			// if minDistPhase1 =0, the H subgroup is reached
+			mv = 3 * ax[n] + po[n] - 1;
+			flip[n + 1] = t.flipMove.get(flip[n] * 18 + mv);
+			twist[n + 1] = t.twistMove.get(twist[n] * 18 + mv);
+			slice[n + 1] = t.FRtoBR_Move.get(slice[n] * 24 * 18 + mv) / 24;
+			minDistPhase1[n + 1] = Math.max(CoordTables.getPruning(t.Slice_Flip_Prun, CoordCube.N_SLICE1 * flip[n + 1]
+					+ slice[n + 1]), CoordTables.getPruning(t.Slice_Twist_Prun, CoordCube.N_SLICE1 * twist[n + 1]
+					+ slice[n + 1]));
+			// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+
+			if (minDistPhase1[n + 1] == 0 && n >= depthPhase1 - 5) {
+				minDistPhase1[n + 1] = 10;// instead of 10 any value >5 is possible
+				if (n == depthPhase1 - 1 && (s = timedTotalDepth(depthPhase1, maxDepth)) >= 0) {
+					if (s == depthPhase1
+							|| (ax[depthPhase1 - 1] != ax[depthPhase1] && ax[depthPhase1 - 1] != ax[depthPhase1] + 3)) {
+						if (listener == null)
+							return solutionToString(s, useSeparator ? depthPhase1 : -1);
+						best = solutionToString(s, -1);
+						listener.accept(best);
+						maxDepth = s - 1;
+						if (bound != null)
+							bound.accumulateAndGet(s, Math::min);
+					}
+				}
+
+			}
+		} while (true);
+	}
+
+	private int timedTotalDepth(int depthPhase1, int maxDepth) {
+		long start = System.nanoTime();
+		int s = totalDepth(depthPhase1, maxDepth);
+		phase2Nanos += System.nanoTime() - start;
+		return s;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Apply phase2 of algorithm and return the combined phase1 and phase2 depth. In phase2, only the moves
+	// U,D,R2,F2,L2 and B2 are allowed.
+	private int totalDepth(int depthPhase1, int maxDepth) {
+		int mv = 0, d1 = 0, d2 = 0;
+		int maxDepthPhase2 = Math.min(10, maxDepth - depthPhase1);// Allow only max 10 moves in phase2
+		for (int i = 0; i < depthPhase1; i++) {
+			mv = 3 * ax[i] + po[i] - 1;
+			URFtoDLF[i + 1] = t.URFtoDLF_Move.get(URFtoDLF[i] * 18 + mv);
+			FRtoBR[i + 1] = t.FRtoBR_Move.get(FRtoBR[i] * 18 + mv);
+			parity[i + 1] = t.parityMove.get(parity[i] * 18 + mv);
+		}
+
+		if ((d1 = CoordTables.getPruning(t.Slice_URFtoDLF_Parity_Prun,
+				(CoordCube.N_SLICE2 * URFtoDLF[depthPhase1] + FRtoBR[depthPhase1]) * 2 + parity[depthPhase1])) > maxDepthPhase2)
+			return -1;
+
+		for (int i = 0; i < depthPhase1; i++) {
+			mv = 3 * ax[i] + po[i] - 1;
+			URtoUL[i + 1] = t.URtoUL_Move.get(URtoUL[i] * 18 + mv);
+			UBtoDF[i + 1] = t.UBtoDF_Move.get(UBtoDF[i] * 18 + mv);
+		}
+		URtoDF[depthPhase1] = t.MergeURtoULandUBtoDF.get(URtoUL[depthPhase1] * 336 + UBtoDF[depthPhase1]);
+
+		if ((d2 = CoordTables.getPruning(t.Slice_URtoDF_Parity_Prun,
+				(CoordCube.N_SLICE2 * URtoDF[depthPhase1] + FRtoBR[depthPhase1]) * 2 + parity[depthPhase1])) > maxDepthPhase2)
+			return -1;
+
+		if ((minDistPhase2[depthPhase1] = Math.max(d1, d2)) == 0)// already solved
+			return depthPhase1;
+
+		// now set up search
+
+		int depthPhase2 = 1;
+		int n = depthPhase1;
+		boolean busy = false;
+		po[depthPhase1] = 0;
+		ax[depthPhase1] = 0;
+		minDistPhase2[n + 1] = 1;// else failure for depthPhase2=1, n=0
+		// +++++++++++++++++++ end initialization +++++++++++++++++++++++++++++++++
+		do {
+			do {
+				if ((depthPhase1 + depthPhase2 - n > minDistPhase2[n + 1]) && !busy) {
+
+					if (ax[n] == 0 || ax[n] == 3)// Initialize next move
+					{
+						ax[++n] = 1;
+						po[n] = 2;
+					} else {
+						ax[++n] = 0;
+						po[n] = 1;
+					}
+				} else if ((ax[n] == 0 || ax[n] == 3) ? (++po[n] > 3) : ((po[n] = po[n] + 2) > 3)) {
+					do {// increment axis
+						if (++ax[n] > 5) {
+							if (n == depthPhase1) {
+								if (depthPhase2 >= maxDepthPhase2)
+									return -1;
+								else {
+									depthPhase2++;
+									ax[n] = 0;
+									po[n] = 1;
+									busy = false;
+									break;
+								}
+							} else {
+								n--;
+								busy = true;
+								break;
+							}
+
+						} else {
+							if (ax[n] == 0 || ax[n] == 3)
+								po[n] = 1;
+							else
+								po[n] = 2;
+							busy = false;
+						}
+					} while (n != depthPhase1 && (ax[n - 1] == ax[n] || ax[n - 1] - 3 == ax[n]));
+				} else
+					busy = false;
+			} while (busy);
+			// +++++++++++++ compute new coordinates and new minDist ++++++++++
+			mv = 3 * ax[n] + po[n] - 1;
+
+			URFtoDLF[n + 1] = t.URFtoDLF_Move.get(URFtoDLF[n] * 18 + mv);
+			FRtoBR[n + 1] = t.FRtoBR_Move.get(FRtoBR[n] * 18 + mv);
+			parity[n + 1] = t.parityMove.get(parity[n] * 18 + mv);
+			URtoDF[n + 1] = t.URtoDF_Move.get(URtoDF[n] * 18 + mv);
+
+			minDistPhase2[n + 1] = Math.max(CoordTables.getPruning(t.Slice_URtoDF_Parity_Prun, (CoordCube.N_SLICE2
+					* URtoDF[n + 1] + FRtoBR[n + 1])
+					* 2 + parity[n + 1]), CoordTables.getPruning(t.Slice_URFtoDLF_Parity_Prun, (CoordCube.N_SLICE2
+					* URFtoDLF[n + 1] + FRtoBR[n + 1])
+					* 2 + parity[n + 1]));
+			// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+
+		} while (minDistPhase2[n + 1] != 0);
+		return depthPhase1 + depthPhase2;
+	}
+}
@@ -0,0 +1,51 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSolverTest {
+
+    private static String run(String input) throws IOException {
+        StringWriter out = new StringWriter();
+        new BatchSolver(true, 0, false).run(new BufferedReader(new StringReader(input)), out, 2);
+        return out.toString();
+    }
+
+    @Test
+    void faceletStringsNeedTheirCentersInPlace() {
+        Cube cube = new Cube();
+        MoveSequence.parse("R U R' F2 D L'").applyTo(cube);
+        assertTrue(BatchSolver.isFaceletString(Solver.faceletString(cube)));
+
+        // 54 face turns without spaces use only facelet letters
+        String scramble = "RUFLDB".repeat(9);
+        assertEquals(54, scramble.length());
+        assertFalse(BatchSolver.isFaceletString(scramble));
+        assertEquals(54, MoveSequence.parse(scramble).length());
+    }
+
+    @Test
+    void writesOneRecordPerLineInInputOrder() throws IOException {
+        String[] lines = run("R U R' U'\n\n# comment\nR Q\n"
+                + "UUUUUUUUURRRRRRRRRFFFFFFFFFDDDDDDDDDLLLLLLLLLBBBBBBBBU\n").split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].startsWith("1,R U R' U',"), lines[1]);
+        assertTrue(lines[2].startsWith("4,R Q,,,"), lines[2]);
+        assertTrue(lines[2].endsWith("Error Unknown move 'Q' at 2"), lines[2]);
+        assertTrue(lines[3].startsWith("5,"), lines[3]);
+        assertTrue(lines[3].contains(",Error 1:"), lines[3]);
+
+        Cube cube = new Cube();
+        MoveSequence.parse("R U R' U'").applyTo(cube);
+        MoveSequence.parse(lines[1].split(",")[2]).applyTo(cube);
+        assertTrue(cube.hasSameState(new Cube()), lines[1]);
+    }
+}
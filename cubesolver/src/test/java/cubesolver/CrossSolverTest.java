@@ -0,0 +1,49 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossSolverTest {
+
+    @Test
+    void solvedCrossNeedsNoMoves() {
+        Cube cube = new Cube();
+        assertTrue(CrossSolver.isSolved(cube));
+        assertEquals(0, CrossSolver.solve(cube).length());
+
+        cube.move("D");
+        assertTrue(CrossSolver.isSolved(cube));
+        cube.move("F");
+        assertFalse(CrossSolver.isSolved(cube));
+        assertEquals(1, CrossSolver.solve(cube).length());
+    }
+
+    @Test
+    void randomStatesSolveInAtMostEightMoves() {
+        Random random = new Random(11);
+        int longest = 0;
+        for (int i = 0; i < 500; i++) {
+            Cube cube = Scrambles.random(random, 25);
+            MoveSequence cross = CrossSolver.solve(cube);
+            longest = Math.max(longest, cross.length());
+            cross.applyTo(cube);
+            assertTrue(CrossSolver.isSolved(cube), "scramble " + i);
+        }
+        assertTrue(longest <= 8, "longest cross " + longest);
+    }
+
+    @Test
+    void crossIsFoundRelativeToTheCenters() {
+        Cube cube = new Cube();
+        MoveSequence.parse("y x2 R U F' L2 D B").applyTo(cube);
+        MoveSequence cross = CrossSolver.solve(cube);
+        assertTrue(cross.length() <= 8);
+        cross.applyTo(cube);
+        assertTrue(CrossSolver.isSolved(cube));
+    }
+}
@@ -0,0 +1,127 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+import org.kociemba.twophase.Search;
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CubeTest {
+
+    private static final String SOLVED = "UUUUUUUUURRRRRRRRRFFFFFFFFFDDDDDDDDDLLLLLLLLLBBBBBBBBB";
+
+    // A seeded scramble of face turns, so the state keeps its orientation
+    private static Cube scrambled(Random random, StringBuilder moves) {
+        Cube cube = new Cube();
+        for (int i = 0; i < 25; i++) {
+            int code = random.nextInt(Cube.FACE_MOVES);
+            cube.move(code);
+            moves.append(Cube.moveName(code)).append(' ');
+        }
+        return cube;
+    }
+
+    @Test
+    void everyMoveHasOrderFourAndUndoesWithItsInverse() {
+        Cube solved = new Cube();
+        for (int code = 0; code < Cube.ALL_MOVES; code++) {
+            Cube cube = new Cube();
+            cube.move(code);
+            assertFalse(cube.hasSameState(solved), Cube.moveName(code));
+            cube.move(code - code % 3 + 2 - code % 3);
+            assertTrue(cube.hasSameState(solved), Cube.moveName(code) + " then its inverse");
+            for (int i = 0; i < 4; i++)
+                cube.move(code);
+            assertTrue(cube.hasSameState(solved), Cube.moveName(code) + " four times");
+        }
+    }
+
+    private static void assertSameMoves(String expected, String actual) {
+        assertArrayEquals(MoveSequence.parse(expected).permutation(), MoveSequence.parse(actual).permutation(),
+                actual + " == " + expected);
+    }
+
+    @Test
+    void sliceAndWideTurnsMatchTheirDefinitions() {
+        assertSameMoves("R L' x'", "M");
+        assertSameMoves("U D' y'", "E");
+        assertSameMoves("F' B z", "S");
+        assertSameMoves("R M'", "r");
+        assertSameMoves("L M", "l");
+        assertSameMoves("U E'", "u");
+        assertSameMoves("D E", "d");
+        assertSameMoves("F S", "f");
+        assertSameMoves("B S'", "b");
+        assertSameMoves("r", "Rw");
+        assertSameMoves("r2", "Rw2");
+        assertSameMoves("r'", "Rw'");
+    }
+
+    @Test
+    void slicesTurnLikeTheirReferenceFace() {
+        // M follows L, E follows D and S follows F
+        Cube cube = new Cube();
+        cube.move("M");
+        assertEquals(Cube.UP, cube.getFacelet(Cube.FRONT * 9 + 4));
+        cube = new Cube();
+        cube.move("E");
+        assertEquals(Cube.FRONT, cube.getFacelet(Cube.RIGHT * 9 + 4));
+        cube = new Cube();
+        cube.move("S");
+        assertEquals(Cube.UP, cube.getFacelet(Cube.RIGHT * 9 + 4));
+        // A wide turn carries the middle layer with its face
+        cube = new Cube();
+        cube.move("r");
+        assertEquals(Cube.FRONT, cube.getFacelet(Cube.UP * 9 + 4));
+    }
+
+    @Test
+    void faceletStringMatchesKociembaLayout() {
+        assertEquals(SOLVED, Solver.faceletString(new Cube()));
+
+        // U turns the top row of F to R, as in the two-phase solver's cubie model
+        Cube cube = new Cube();
+        cube.move("U");
+        assertEquals("UUUUUUUUUBBBRRRRRRRRRFFFFFFDDDDDDDDDFFFLLLLLLLLLBBBBBB", Solver.faceletString(cube));
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            String facelets = Solver.faceletString(scrambled(random, new StringBuilder()));
+            assertEquals(facelets, Solver.faceletString(Cube.fromFaceletString(facelets)));
+        }
+    }
+
+    @Test
+    void twoPhaseSolutionSolvesThePackedCube() {
+        Random random = new Random(2);
+        for (int i = 0; i < 20; i++) {
+            StringBuilder scramble = new StringBuilder();
+            Cube cube = scrambled(random, scramble);
+            String solution = Search.solution(Solver.faceletString(cube), 21, 10, false);
+            assertFalse(solution.startsWith("Error"), scramble + ": " + solution);
+            for (String mv : solution.trim().split("\\s+"))
+                cube.move(mv);
+            assertTrue(cube.hasSameState(new Cube()), scramble + "solved by " + solution);
+        }
+    }
+
+    @Test
+    void cubiesMatchTheFaceletStringPath() {
+        Random random = new Random(24);
+        String[] rotations = { "", "x", "y2", "z'" };
+        for (int i = 0; i < 300; i++) {
+            Cube cube = Scrambles.random(random, 25);
+            // Both read the pieces relative to the centers
+            MoveSequence.parse(rotations[i % rotations.length]).applyTo(cube);
+            byte[] cubies = new byte[TwoPhaseSearch.CUBIES];
+            assertNull(CubeValidator.toCubies(cube, cubies), "scramble " + i);
+            assertArrayEquals(TwoPhaseSearch.cubies(Solver.faceletString(cube)), cubies, "scramble " + i);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CubeValidatorTest {
+
+    private static final String SOLVED = Solver.faceletString(new Cube());
+
+    // Facelet string indices, as in Kociemba's layout
+    private static String with(String facelets, int index, char letter) {
+        StringBuilder sb = new StringBuilder(facelets);
+        sb.setCharAt(index, letter);
+        return sb.toString();
+    }
+
+    private static String swapped(String facelets, int i, int j) {
+        return with(with(facelets, i, facelets.charAt(j)), j, facelets.charAt(i));
+    }
+
+    private static void assertProblem(CubeValidator.Problem expected, int code, String facelets) {
+        CubeValidator.Problem problem = CubeValidator.check(Cube.fromFaceletString(facelets));
+        assertEquals(expected, problem, facelets);
+        assertEquals("Error " + code, problem.error());
+    }
+
+    @Test
+    void acceptsSolvableStates() {
+        assertNull(CubeValidator.check(new Cube()));
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++)
+            assertNull(CubeValidator.check(Scrambles.random(random, 25)), "scramble " + i);
+    }
+
+    @Test
+    void rejectsUnevenColorCount() {
+        // U2 turns into a second R sticker
+        assertProblem(CubeValidator.Problem.COLOR_COUNT, 1, with(SOLVED, 1, 'R'));
+    }
+
+    @Test
+    void rejectsDuplicateCenter() {
+        // The R center shows U; a U sticker shows R so every color still appears nine times
+        assertProblem(CubeValidator.Problem.CENTERS, 1, with(with(SOLVED, 13, 'U'), 0, 'R'));
+    }
+
+    @Test
+    void rejectsDuplicatedEdge() {
+        // UF shows U and R like UR; a corner's R sticker turns F to keep the counts
+        assertProblem(CubeValidator.Problem.EDGES, 2, with(with(SOLVED, 19, 'R'), 9, 'F'));
+    }
+
+    @Test
+    void rejectsDuplicatedCorner() {
+        // ULB shows U, R and F like URF, and DFR shows D, B and L like DBL
+        String facelets = with(with(SOLVED, 36, 'R'), 47, 'F');
+        facelets = with(with(facelets, 26, 'B'), 15, 'L');
+        assertProblem(CubeValidator.Problem.CORNERS, 4, facelets);
+    }
+
+    @Test
+    void rejectsOneFlippedEdge() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            String facelets = Solver.faceletString(Scrambles.random(random, 25));
+            // Both stickers of the UR edge
+            assertProblem(CubeValidator.Problem.EDGE_FLIP, 3, swapped(facelets, 5, 10));
+        }
+    }
+
+    @Test
+    void rejectsOneTwistedCorner() {
+        Random random = new Random(4);
+        for (int i = 0; i < 20; i++) {
+            String facelets = Solver.faceletString(Scrambles.random(random, 25));
+            // The three stickers of the URF corner, turned a third
+            assertProblem(CubeValidator.Problem.CORNER_TWIST, 5, swapped(swapped(facelets, 8, 9), 9, 20));
+        }
+    }
+
+    @Test
+    void rejectsSingleSwap() {
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            String facelets = Solver.faceletString(Scrambles.random(random, 25));
+            // The UR and UF edges exchanged
+            assertProblem(CubeValidator.Problem.PARITY, 6, swapped(swapped(facelets, 5, 7), 10, 19));
+        }
+    }
+}
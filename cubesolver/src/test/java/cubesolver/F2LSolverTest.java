@@ -0,0 +1,40 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class F2LSolverTest {
+
+    @Test
+    void solvedSlotsNeedNoMoves() {
+        Cube cube = new Cube();
+        for (int slot = 0; slot < 4; slot++)
+            assertTrue(F2LSolver.isSlotSolved(cube, slot));
+        assertEquals(0, F2LSolver.solve(cube).length());
+
+        // R' D' R takes the front-right pair out and leaves the other three slots alone
+        MoveSequence.parse("R' D' R").applyTo(cube);
+        assertTrue(F2LSolver.isSlotSolved(cube, 0));
+        assertFalse(F2LSolver.isSlotSolved(cube, 1));
+        MoveSequence f2l = F2LSolver.solve(cube);
+        assertTrue(f2l.length() <= 3, f2l.toString());
+    }
+
+    @Test
+    void insertsAllFourPairsAfterTheCross() {
+        Random random = new Random(12);
+        for (int i = 0; i < 500; i++) {
+            Cube cube = Scrambles.random(random, 25);
+            CrossSolver.solve(cube).applyTo(cube);
+            F2LSolver.solve(cube).applyTo(cube);
+            assertTrue(CrossSolver.isSolved(cube), "cross kept, scramble " + i);
+            for (int slot = 0; slot < 4; slot++)
+                assertTrue(F2LSolver.isSlotSolved(cube, slot), "slot " + slot + ", scramble " + i);
+        }
+    }
+}
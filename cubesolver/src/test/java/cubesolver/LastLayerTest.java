@@ -0,0 +1,84 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LastLayerTest {
+
+    // D turns and three U-layer algorithms carried to D, which together
+    // reach every last-layer state: Sune, T perm and F R U R' U' F'
+    private static final String[] GENERATORS = { "D", "z2 R U R' U R U2 R' z2",
+            "z2 R U R' U' R' F R2 U' R' U' R U R' F' z2", "z2 F R U R' U' F' z2" };
+
+    // Every state with the first two layers solved, by breadth-first search over the generators
+    private static List<Cube> lastLayerStates() {
+        MoveSequence[] generators = new MoveSequence[GENERATORS.length];
+        for (int g = 0; g < generators.length; g++)
+            generators[g] = MoveSequence.parse(GENERATORS[g]);
+        List<Cube> states = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        ArrayDeque<Cube> queue = new ArrayDeque<>();
+        queue.add(new Cube());
+        seen.add(Solver.faceletString(new Cube()));
+        while (!queue.isEmpty()) {
+            Cube cube = queue.poll();
+            states.add(cube);
+            for (MoveSequence g : generators) {
+                Cube next = new Cube(cube);
+                g.applyTo(next);
+                if (seen.add(Solver.faceletString(next)))
+                    queue.add(next);
+            }
+        }
+        return states;
+    }
+
+    @Test
+    void recognisesEveryCaseUnderEveryAuf() {
+        List<Cube> states = lastLayerStates();
+        // 4! * 4! / 2 permutations, the AUFs among them, * 3^3 corner twists * 2^3 edge flips
+        assertEquals(62208, states.size());
+
+        Set<Integer> ollCases = new HashSet<>(), pllCases = new HashSet<>();
+        int oriented = 0;
+        Cube solved = new Cube();
+        for (Cube state : states) {
+            Cube cube = new Cube(state);
+            ollCases.add(LastLayer.canonicalOll(cube) >>> 2);
+            if (LastLayer.isOriented(cube)) {
+                oriented++;
+                pllCases.add(LastLayer.canonicalPll(cube) >>> 2);
+            }
+            MoveSequence oll = LastLayer.oll(cube);
+            assertNotNull(oll, Solver.faceletString(state));
+            oll.applyTo(cube);
+            assertTrue(LastLayer.isOriented(cube), Solver.faceletString(state));
+
+            MoveSequence pll = LastLayer.pll(cube);
+            assertNotNull(pll, Solver.faceletString(state));
+            pll.applyTo(cube);
+            assertTrue(cube.hasSameState(solved), Solver.faceletString(state));
+        }
+        // The 57 OLL and 21 PLL cases, plus the solved one of each
+        assertEquals(288, oriented);
+        assertEquals(58, ollCases.size());
+        assertEquals(22, pllCases.size());
+    }
+
+    @Test
+    void unsolvedFirstTwoLayersAreNotRecognised() {
+        Cube cube = new Cube();
+        cube.move("R");
+        assertNull(LastLayer.oll(cube));
+    }
+}
@@ -0,0 +1,117 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveSequenceTest {
+
+    // The 24 whole-cube rotations as facelet permutations
+    private static final List<byte[]> ROTATIONS = new ArrayList<>();
+
+    static {
+        ROTATIONS.add(MoveSequence.EMPTY.permutation());
+        for (int i = 0; i < ROTATIONS.size(); i++)
+            for (int r : new int[] { Cube.X, Cube.Y }) {
+                byte[] next = Cube.compose(ROTATIONS.get(i), Cube.permutation(r));
+                if (ROTATIONS.stream().noneMatch(p -> Arrays.equals(p, next)))
+                    ROTATIONS.add(next);
+            }
+    }
+
+    private static boolean sameUpToRotation(Cube a, Cube b) {
+        for (byte[] rotation : ROTATIONS) {
+            Cube rotated = new Cube(b);
+            rotated.applyPermutation(rotation);
+            if (rotated.hasSameState(a))
+                return true;
+        }
+        return false;
+    }
+
+    private static String simplified(String moves) {
+        return MoveSequence.parse(moves).simplified().toString();
+    }
+
+    private static int errorPosition(String moves) {
+        return assertThrows(MoveSequence.NotationException.class, () -> MoveSequence.parse(moves)).position;
+    }
+
+    @Test
+    void expandsGroupsCommutatorsAndConjugates() {
+        assertEquals("R U R' U' R U R' U' R U R' U'", MoveSequence.parse("(R U R' U')3").toString());
+        assertEquals("R U R' U'", MoveSequence.parse("[R, U]").toString());
+        assertEquals("R U R'", MoveSequence.parse("[R: U]").toString());
+        assertEquals("U' R'", MoveSequence.parse("(R U)'").toString());
+        assertEquals("R U R' U' F U R U' R' F'", MoveSequence.parse("[[R, U], F]").toString());
+        assertEquals("F R U R' U' F'", MoveSequence.parse("[F: [R, U]]").toString());
+        assertEquals("U' R' U' R'", MoveSequence.parse("(R U)2'").toString());
+        assertEquals("R U R' U'", MoveSequence.parse("RUR'U'").toString());
+        assertEquals("R' R2 U", MoveSequence.parse("R3 R2' R4 U").toString());
+        assertEquals("r M2 E' S", MoveSequence.parse("Rw M2 E' S").toString());
+        assertEquals("", MoveSequence.parse("  ").toString());
+    }
+
+    @Test
+    void readsTheInternalInverseFormInEitherCase() {
+        assertEquals("R R' R'", MoveSequence.parse("R RI R'").toString());
+        assertEquals("R R' R'", MoveSequence.parse("R Ri R'").toString());
+        assertEquals(Cube.parseMove("R'"), Cube.parseMove("RI"));
+        assertEquals(Cube.parseMove("R'"), Cube.parseMove("Ri"));
+        assertEquals(Cube.parseMove("RI"), MoveSequence.parse("RI").get(0));
+        assertEquals(Cube.parseMove("ri"), MoveSequence.parse("rI").get(0));
+    }
+
+    @Test
+    void reportsWhereTheNotationGoesWrong() {
+        assertEquals(4, errorPosition("(R U"));
+        assertEquals(4, errorPosition("[R U]"));
+        assertEquals(2, errorPosition("R'2"));
+        assertEquals(3, errorPosition("R U)"));
+        assertEquals(2, errorPosition("R Q"));
+        assertEquals(5, errorPosition("[R, U"));
+    }
+
+    @Test
+    void simplifiesFixedCases() {
+        assertEquals("L", simplified("R L R'"));
+        assertEquals("F", simplified("x U x'"));
+        assertEquals("", simplified("R U U' R'"));
+        assertEquals("R2", simplified("R R"));
+        assertEquals("", simplified("R2 R2"));
+        assertEquals("U' D", simplified("U D U2"));
+        assertEquals("R2", simplified("R y F y'"));
+        assertEquals("", simplified("x y z"));
+    }
+
+    @Test
+    void simplifiedEqualsInputUpToRotation() {
+        assertEquals(24, ROTATIONS.size());
+        Random random = new Random(14);
+        for (int i = 0; i < 3000; i++) {
+            byte[] codes = new byte[1 + random.nextInt(40)];
+            for (int k = 0; k < codes.length; k++)
+                codes[k] = (byte) random.nextInt(Cube.MOVE_COUNT);
+            MoveSequence moves = MoveSequence.of(codes);
+            MoveSequence simplified = moves.simplified();
+
+            Cube expected = new Cube(), actual = new Cube();
+            moves.applyTo(expected);
+            simplified.applyTo(actual);
+            assertTrue(sameUpToRotation(expected, actual), moves + " -> " + simplified);
+            assertTrue(simplified.length() <= codes.length, moves + " -> " + simplified);
+            for (int k = 0; k < simplified.length(); k++)
+                assertTrue(simplified.get(k) < Cube.FACE_MOVES, moves + " -> " + simplified);
+            for (int k = 1; k < simplified.length(); k++)
+                assertTrue(simplified.get(k) / 3 != simplified.get(k - 1) / 3, moves + " -> " + simplified);
+            assertEquals(simplified.toString(), simplified.simplified().toString());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package cubesolver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.kociemba.twophase.TwoPhaseSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrientationRaceTest {
+
+    @BeforeAll
+    static void loadTables() {
+        TwoPhaseSearch.loadTables();
+    }
+
+    private static Cube randomState(int run) {
+        Cube cube = new Cube();
+        new Solver(cube).scramble(22, run);
+        return cube;
+    }
+
+    @Test
+    void improvementsArriveShortestLast() {
+        for (int run = 0; run < 3; run++) {
+            Cube cube = randomState(run);
+            List<Integer> lengths = new ArrayList<>();
+            String solution = OrientationRace.solve(cube, 24, 300, 0, moves -> lengths.add(moves.length()));
+            assertFalse(solution.startsWith("Error"), solution);
+
+            MoveSequence moves = MoveSequence.parse(solution);
+            assertFalse(lengths.isEmpty());
+            for (int i = 1; i < lengths.size(); i++)
+                assertTrue(lengths.get(i) < lengths.get(i - 1), lengths.toString());
+            assertEquals(moves.length(), lengths.get(lengths.size() - 1));
+            moves.applyTo(cube);
+            assertTrue(cube.hasSameState(new Cube()), solution);
+        }
+    }
+
+    @Test
+    void concurrentRacesDoNotWaitForEachOther() throws InterruptedException {
+        Cube first = randomState(10), second = randomState(11);
+        // A target of 0 moves is never reached, so the long race runs until interrupted
+        Thread longRace = new Thread(() -> OrientationRace.solve(first, 24, 30_000, 0, null));
+        longRace.start();
+        try {
+            Thread.sleep(100);
+            long start = System.nanoTime();
+            String solution = OrientationRace.solve(second, 24, 1_000, 0, null);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertFalse(solution.startsWith("Error"), solution);
+            assertTrue(millis < 5_000, "short race took " + millis + " ms");
+            assertTrue(longRace.isAlive());
+        } finally {
+            longRace.interrupt();
+            longRace.join();
+        }
+    }
+}
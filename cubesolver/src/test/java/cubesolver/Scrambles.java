@@ -0,0 +1,27 @@
+package cubesolver;
+
+import java.util.Random;
+
+/** Seeded random-turn scrambles for tests that need many states quickly. */
+final class Scrambles {
+
+    private Scrambles() {
+    }
+
+    /** A cube scrambled by length random face turns, never turning the same face twice in a row. */
+    static Cube random(Random random, int length) {
+        byte[] codes = new byte[length];
+        int last = -1;
+        for (int i = 0; i < length; i++) {
+            int face;
+            do {
+                face = random.nextInt(6);
+            } while (face == last);
+            codes[i] = (byte) (3 * face + random.nextInt(3));
+            last = face;
+        }
+        Cube cube = new Cube();
+        MoveSequence.of(codes).applyTo(cube);
+        return cube;
+    }
+}
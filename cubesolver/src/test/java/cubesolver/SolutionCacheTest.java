@@ -0,0 +1,115 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+import org.kociemba.twophase.Search;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionCacheTest {
+
+    private static final String[] ROTATIONS = { "", "x", "y", "z" };
+
+    private static byte[] randomMoves(Random random, int length) {
+        byte[] codes = new byte[length];
+        int last = -1;
+        for (int i = 0; i < length; i++) {
+            int face;
+            do {
+                face = random.nextInt(6);
+            } while (face == last);
+            last = face;
+            codes[i] = (byte) (3 * face + random.nextInt(3));
+        }
+        return codes;
+    }
+
+    // Solved in any orientation and color scheme: every face shows one color
+    private static boolean isSolved(Cube cube) {
+        for (int i = 0; i < 54; i++) {
+            if (cube.getFacelet(i) != cube.getFacelet(i / 9 * 9 + 4))
+                return false;
+        }
+        return true;
+    }
+
+    // The same stickers with the six colors exchanged
+    private static Cube recolored(Cube cube, Random random) {
+        char[] letters = "URFDLB".toCharArray();
+        for (int i = letters.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char t = letters[i];
+            letters[i] = letters[j];
+            letters[j] = t;
+        }
+        StringBuilder sb = new StringBuilder(Solver.faceletString(cube));
+        for (int i = 0; i < sb.length(); i++)
+            sb.setCharAt(i, letters["URFDLB".indexOf(sb.charAt(i))]);
+        return Cube.fromFaceletString(sb);
+    }
+
+    private static void assertSolves(SolutionCache cache, Cube cube, String what) {
+        MoveSequence solution = cache.get(Symmetry.canonicalize(cube));
+        assertNotNull(solution, what);
+        solution.applyTo(cube);
+        assertTrue(isSolved(cube), what + ": " + solution);
+    }
+
+    @Test
+    void cachedSolutionsSolveSymmetricRotatedAndRecoloredCopies() {
+        SolutionCache cache = new SolutionCache(100);
+        Random random = new Random(6);
+        long hits = 0;
+        for (int n = 0; n < 5; n++) {
+            byte[] scramble = randomMoves(random, 25);
+            Cube cube = new Cube();
+            MoveSequence.of(scramble).applyTo(cube);
+            Symmetry.Canonical key = Symmetry.canonicalize(cube);
+            assertNull(cache.get(key));
+            assertEquals(n + 1, cache.misses());
+            String solution = Search.solution(Solver.faceletString(cube), 21, 10, false);
+            assertFalse(solution.startsWith("Error"), solution);
+            cache.put(key, MoveSequence.parse(solution));
+
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                Cube symmetric = new Cube();
+                MoveSequence.of(Symmetry.conjugate(scramble, s)).applyTo(symmetric);
+                for (String rotation : ROTATIONS) {
+                    Cube copy = new Cube(symmetric);
+                    if (!rotation.isEmpty())
+                        copy.move(rotation);
+                    assertSolves(cache, copy, "scramble " + n + ", symmetry " + s + ", rotation " + rotation);
+                    hits++;
+                }
+                assertSolves(cache, recolored(symmetric, random), "scramble " + n + ", symmetry " + s + " recolored");
+                hits++;
+            }
+            assertEquals(hits, cache.hits());
+            assertEquals(n + 1, cache.size());
+        }
+        assertEquals(5, cache.misses());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDropped() {
+        SolutionCache cache = new SolutionCache(2);
+        Cube[] cubes = { new Cube(), new Cube(), new Cube() };
+        cubes[0].move("R");
+        cubes[1].move("R2");
+        MoveSequence.parse("U F").applyTo(cubes[2]);
+        cache.put(Symmetry.canonicalize(cubes[0]), MoveSequence.parse("R'"));
+        cache.put(Symmetry.canonicalize(cubes[1]), MoveSequence.parse("R2"));
+        assertNotNull(cache.get(Symmetry.canonicalize(cubes[0])));
+        cache.put(Symmetry.canonicalize(cubes[2]), MoveSequence.parse("F' U'"));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(Symmetry.canonicalize(cubes[1])));
+        assertNotNull(cache.get(Symmetry.canonicalize(cubes[0])));
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+}
@@ -0,0 +1,103 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverTest {
+
+    @Test
+    void cfopSolvesSeededScrambles() {
+        Random random = new Random(13);
+        for (int i = 0; i < 500; i++) {
+            Cube cube = Scrambles.random(random, 25);
+            Cube scrambled = new Cube(cube);
+            Solver solver = new Solver(cube);
+            solver.solveCFOP();
+            assertTrue(cube.hasSameState(new Cube()), "scramble " + i);
+
+            // The reported steps replay to the same result
+            String[] steps = { solver.getCrossMoves(), solver.getF2LMoves(), solver.getOLLMoves(),
+                    solver.getPLLMoves() };
+            int[] counts = solver.getStepMovesCount();
+            assertTrue(counts[0] <= 8, "cross of " + counts[0] + " moves");
+            for (int s = 0; s < 4; s++) {
+                MoveSequence step = MoveSequence.parse(steps[s]);
+                assertEquals(counts[s], step.length(), "step " + s + " of scramble " + i);
+                step.applyTo(scrambled);
+            }
+            assertTrue(scrambled.hasSameState(new Cube()), "replayed scramble " + i);
+        }
+    }
+
+    // Two blocks of runs, the second one partial
+    private static final int SIMULATION_RUNS = Solver.SIMULATION_CHUNK + 36;
+    private static final long SIMULATION_SEED = 42;
+
+    // Everything but the solve times, which are measured
+    private static void assertSameResult(Solver.SimulationResult expected, Solver.SimulationResult actual) {
+        assertEquals(expected.runs, actual.runs);
+        assertEquals(expected.bestMoves, actual.bestMoves);
+        assertEquals(expected.bestRun, actual.bestRun);
+        assertEquals(expected.bestScramble, actual.bestScramble);
+        assertEquals(expected.worstMoves, actual.worstMoves);
+        assertEquals(expected.worstRun, actual.worstRun);
+        assertEquals(expected.worstScramble, actual.worstScramble);
+        assertEquals(expected.moves.encode(), actual.moves.encode());
+        for (int s = 0; s < expected.stepMoves.length; s++)
+            assertEquals(expected.stepMoves[s].encode(), actual.stepMoves[s].encode(), "step " + s);
+    }
+
+    @Test
+    void simulationDoesNotDependOnThreadCount() {
+        Solver.SimulationResult one = new Solver(new Cube()).simulation(SIMULATION_RUNS, SIMULATION_SEED, 1, null);
+        Solver.SimulationResult four = new Solver(new Cube()).simulation(SIMULATION_RUNS, SIMULATION_SEED, 4, null);
+        assertEquals(SIMULATION_RUNS, one.runs);
+        assertSameResult(one, four);
+    }
+
+    @Test
+    void simulationResumesFromCheckpoint(@TempDir Path dir) {
+        Path checkpoint = dir.resolve("simulation.properties");
+        Solver.SimulationResult whole = new Solver(new Cube()).simulation(SIMULATION_RUNS, SIMULATION_SEED, 1, null);
+
+        // A checkpoint with only the first block done; run i depends only
+        // on the seed and i, so that block is a shorter simulation
+        SimulationProgress progress = SimulationProgress.open(SIMULATION_RUNS, SIMULATION_SEED,
+                Solver.SIMULATION_CHUNK, checkpoint);
+        progress.complete(0,
+                new Solver(new Cube()).simulation(Solver.SIMULATION_CHUNK, SIMULATION_SEED, 1, null));
+        progress.save();
+
+        Solver.SimulationResult resumed = new Solver(new Cube()).simulation(SIMULATION_RUNS, SIMULATION_SEED, 1,
+                checkpoint);
+        assertSameResult(whole, resumed);
+        // Everything is done now, so a rerun only reads the checkpoint
+        assertSameResult(whole, new Solver(new Cube()).simulation(SIMULATION_RUNS, SIMULATION_SEED, 1, checkpoint));
+    }
+
+    @Test
+    void damagedCheckpointIsReported(@TempDir Path dir) throws IOException {
+        Path checkpoint = dir.resolve("simulation.properties");
+        new Solver(new Cube()).simulation(0, SIMULATION_SEED, 1, checkpoint);
+        List<String> lines = Files.readAllLines(checkpoint).stream()
+                .map(line -> line.startsWith("done=") ? "done=0-x" : line)
+                .collect(Collectors.toList());
+        assertTrue(lines.contains("done=0-x"));
+        Files.write(checkpoint, lines);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new Solver(new Cube()).simulation(0, SIMULATION_SEED, 1, checkpoint));
+        assertTrue(e.getMessage().contains("is damaged"), e.getMessage());
+    }
+}
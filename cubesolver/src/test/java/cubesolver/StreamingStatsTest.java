@@ -0,0 +1,112 @@
+package cubesolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingStatsTest {
+
+    private static void checkBucket(long value) {
+        int b = StreamingStats.bucket(value);
+        long upper = StreamingStats.upperBound(b);
+        long lower = b == 0 ? 0 : StreamingStats.upperBound(b - 1) + 1;
+        assertTrue(lower <= value && value <= upper, value + " in [" + lower + ", " + upper + "]");
+        if (value < 64)
+            assertEquals(value, upper, "exact bucket");
+        else
+            assertTrue(upper - lower + 1 <= lower / 32, value + " in [" + lower + ", " + upper + "]");
+    }
+
+    @Test
+    void bucketsHoldTheirValuesWithinThreePercent() {
+        for (long v = 0; v < 5000; v++)
+            checkBucket(v);
+        for (int bit = 6; bit < 63; bit++) {
+            long p = 1L << bit;
+            checkBucket(p - 1);
+            checkBucket(p);
+            checkBucket(p + 1);
+        }
+        checkBucket(Long.MAX_VALUE);
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++)
+            checkBucket(random.nextLong() >>> (1 + random.nextInt(63)));
+    }
+
+    @Test
+    void summarizesAKnownSet() {
+        StreamingStats stats = new StreamingStats();
+        for (long v = 1; v <= 10; v++)
+            stats.add(v);
+        assertEquals(10, stats.count());
+        assertEquals(1, stats.min());
+        assertEquals(10, stats.max());
+        assertEquals(5.5, stats.mean(), 1e-12);
+        assertEquals(Math.sqrt(55.0 / 6), stats.stddev(), 1e-12);
+        assertEquals(1, stats.percentile(0.0));
+        assertEquals(5, stats.percentile(0.5));
+        assertEquals(9, stats.percentile(0.9));
+        assertEquals(10, stats.percentile(1.0));
+        assertEquals(1, stats.frequency(7));
+        assertEquals("1:1 2:1 3:1 4:1 5:1 6:1 7:1 8:1 9:1 10:1", stats.histogram());
+
+        // Squares past 2^64 carry into the high word
+        StreamingStats large = new StreamingStats();
+        large.add(3_000_000_000L);
+        large.add(5_000_000_000L);
+        assertEquals(4e9, large.mean(), 1e-3);
+        assertEquals(Math.sqrt(2) * 1e9, large.stddev(), 1e-6 * 1e9);
+        assertEquals(5_000_000_000L, large.percentile(1.0));
+        long median = large.percentile(0.5);
+        assertTrue(median >= 3_000_000_000L && median <= 3_000_000_000L * 33 / 32, "median " + median);
+
+        StreamingStats empty = new StreamingStats();
+        assertEquals(0, empty.mean());
+        assertEquals(0, empty.stddev());
+        assertEquals(0, empty.min());
+        assertEquals(0, empty.percentile(0.5));
+    }
+
+    @Test
+    void mergedHalvesEqualOneStream() {
+        Random random = new Random(8);
+        StreamingStats all = new StreamingStats(), first = new StreamingStats(), second = new StreamingStats();
+        for (int i = 0; i < 10_000; i++) {
+            long v = i % 3 == 0 ? random.nextInt(30) : random.nextLong() >>> 20;
+            all.add(v);
+            (i < 4000 ? first : second).add(v);
+        }
+        first.merge(second);
+        assertEquals(all.encode(), first.encode());
+        assertEquals(all.stddev(), first.stddev());
+
+        // Merging into or from an empty summary changes nothing
+        StreamingStats copy = new StreamingStats();
+        copy.merge(all);
+        copy.merge(new StreamingStats());
+        assertEquals(all.encode(), copy.encode());
+    }
+
+    @Test
+    void decodeRestoresEncode() {
+        Random random = new Random(21);
+        StreamingStats stats = new StreamingStats();
+        for (int i = 0; i < 1000; i++)
+            stats.add(random.nextLong() >>> (1 + random.nextInt(63)));
+        StreamingStats decoded = StreamingStats.decode(stats.encode());
+        assertEquals(stats.encode(), decoded.encode());
+        assertEquals(stats.mean(), decoded.mean());
+        assertEquals(stats.stddev(), decoded.stddev());
+        assertEquals(stats.percentile(0.99), decoded.percentile(0.99));
+        assertEquals(stats.histogram(), decoded.histogram());
+
+        StreamingStats empty = new StreamingStats();
+        assertEquals(empty.encode(), StreamingStats.decode(empty.encode()).encode());
+        assertThrows(IllegalArgumentException.class, () -> StreamingStats.decode("1,2,x;"));
+        assertThrows(IllegalArgumentException.class, () -> StreamingStats.decode("no summary"));
+    }
+}